@@ -1,14 +1,43 @@
 package library;
 
+import library.branch.BranchNetwork;
+import library.cli.BatchRunner;
 import library.cli.LibraryCLI;
+import library.events.EventStream;
+import library.io.LibrarySnapshot;
+import library.policy.LoanPolicyStore;
+import library.services.LibrarySystem;
+import library.time.LibraryClock;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main application class
  * Entry point for the Library Management System
+ *
+ * Usage:
+ *   LibraryManagementApp                       interactive menu
+ *   LibraryManagementApp --batch [script|-]    run a command script (stdin by default)
+ *        [--snapshot file] [--save file]       load state from / save state to a snapshot
+ *        [--events file]                       append change events to an event log
+ *        [--policy file]                       loan policy file (see LoanPolicy), reloaded
+ *                                              when it changes
+ *        [--branches file]                     branch network file (see BranchNetwork)
+ *        [--fast-start]                        serve right after the snapshot's records are
+ *                                              loaded, building indexes in the background
  */
 public class LibraryManagementApp {
     public static void main(String[] args) {
         try {
+            if (args.length > 0 && args[0].equals("--batch")) {
+                runBatch(args);
+                return;
+            }
             LibraryCLI cli = new LibraryCLI();
             cli.start();
         } catch (Exception e) {
@@ -16,4 +45,64 @@ public class LibraryManagementApp {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    private static void runBatch(String[] args) throws Exception {
+        String script = "-";
+        String snapshot = null;
+        String save = null;
+        String eventLog = null;
+        String policy = null;
+        String branches = null;
+        boolean fastStart = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--snapshot") && i + 1 < args.length) {
+                snapshot = args[++i];
+            } else if (args[i].equals("--save") && i + 1 < args.length) {
+                save = args[++i];
+            } else if (args[i].equals("--events") && i + 1 < args.length) {
+                eventLog = args[++i];
+            } else if (args[i].equals("--policy") && i + 1 < args.length) {
+                policy = args[++i];
+            } else if (args[i].equals("--branches") && i + 1 < args.length) {
+                branches = args[++i];
+            } else if (args[i].equals("--fast-start")) {
+                fastStart = true;
+            } else {
+                script = args[i];
+            }
+        }
+
+        EventStream events = eventLog == null
+                ? new EventStream(EventStream.DEFAULT_CAPACITY)
+                : new EventStream(EventStream.DEFAULT_CAPACITY, Paths.get(eventLog));
+        LoanPolicyStore policies = new LoanPolicyStore();
+        if (policy != null) {
+            policies.load(Paths.get(policy));
+            policies.startWatching(LoanPolicyStore.DEFAULT_WATCH_SECONDS, TimeUnit.SECONDS);
+        }
+        LibrarySystem librarySystem = new LibrarySystem(LibraryClock.system(), snapshot == null, events, policies);
+        if (branches != null) {
+            librarySystem.setBranchNetwork(BranchNetwork.load(Paths.get(branches)));
+        }
+        if (snapshot != null && fastStart) {
+            LibrarySnapshot.importForFastStart(Paths.get(snapshot), librarySystem);
+        } else if (snapshot != null) {
+            LibrarySnapshot.importFrom(Paths.get(snapshot), librarySystem);
+        }
+
+        BufferedReader reader = script.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8);
+        try {
+            new BatchRunner(librarySystem, System.out).run(reader);
+        } finally {
+            reader.close();
+            policies.stopWatching();
+            events.close();
+        }
+
+        if (save != null) {
+            LibrarySnapshot.exportTo(librarySystem, Paths.get(save));
+        }
+    }
+}
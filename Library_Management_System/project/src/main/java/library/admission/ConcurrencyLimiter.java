@@ -0,0 +1,103 @@
+package library.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Adaptive limit on the number of requests running at once
+ * The limit grows by one while observed latency stays under the target and
+ * shrinks by 10% when the smoothed latency goes over it, at most once per
+ * round trip: only a request that started after the last cut can trigger the
+ * next one, since the others ran under the old limit. A request that finds
+ * the limit reached may wait briefly for a slot; the wait is bounded by twice
+ * the smoothed latency, so queueing shrinks as the system slows down.
+ * All state is kept in atomics and volatiles; the latency average is updated
+ * without locking and is approximate under contention by design.
+ */
+public class ConcurrencyLimiter {
+    private static final long WAIT_STEP_NANOS = 50_000;
+    private static final double SMOOTHING = 0.1;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetLatencyNanos;
+    private final long maxWaitNanos;
+    private final AtomicInteger inFlight;
+    private final AtomicLong lastDecreaseNanos;
+    private volatile int limit;
+    private volatile long smoothedLatencyNanos;
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                              long targetLatencyNanos, long maxWaitNanos) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.inFlight = new AtomicInteger();
+        this.lastDecreaseNanos = new AtomicLong(System.nanoTime());
+        this.limit = initialLimit;
+        this.smoothedLatencyNanos = targetLatencyNanos / 2;
+    }
+
+    public boolean tryAcquire() {
+        if (tryTake()) {
+            return true;
+        }
+        long deadline = System.nanoTime() + Math.min(maxWaitNanos, 2 * smoothedLatencyNanos);
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(WAIT_STEP_NANOS);
+            if (tryTake()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Must follow every successful tryAcquire, with how long the request took
+    public void release(long latencyNanos) {
+        int running = inFlight.getAndDecrement();
+        long smoothed = (long) (smoothedLatencyNanos + SMOOTHING * (latencyNanos - smoothedLatencyNanos));
+        smoothedLatencyNanos = smoothed;
+
+        int current = limit;
+        if (smoothed > targetLatencyNanos) {
+            long now = System.nanoTime();
+            long lastDecrease = lastDecreaseNanos.get();
+            if (now - latencyNanos - lastDecrease >= 0 && lastDecreaseNanos.compareAndSet(lastDecrease, now)) {
+                limit = Math.max(minLimit, current - Math.max(1, current / 10));
+            }
+        } else if (running >= current && current < maxLimit) {
+            // Only grow while the limit is actually what holds requests back
+            limit = current + 1;
+        }
+    }
+
+    private boolean tryTake() {
+        while (true) {
+            int running = inFlight.get();
+            if (running >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Statistics
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getSmoothedLatencyNanos() {
+        return smoothedLatencyNanos;
+    }
+}
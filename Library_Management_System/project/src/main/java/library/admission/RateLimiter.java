@@ -0,0 +1,74 @@
+package library.admission;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client token bucket rate limiter
+ * Each client's bucket is a single "theoretical arrival time" (the GCRA form
+ * of a token bucket), so taking a token is one compare-and-set with no locks
+ * and no background refill thread.
+ *
+ * Idle buckets are retired before they are dropped from the map: a request
+ * that fetched a bucket just before the sweep sees it retired and fetches
+ * the client's current one, so no token is taken from a forgotten bucket.
+ */
+public class RateLimiter {
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final long emissionIntervalNanos;
+    private final long burstWindowNanos;
+    private final ConcurrentHashMap<String, AtomicLong> clients;
+
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstWindowNanos = emissionIntervalNanos * burst;
+        this.clients = new ConcurrentHashMap<>();
+    }
+
+    public boolean tryAcquire(String clientId) {
+        long now = System.nanoTime();
+        AtomicLong arrival = bucket(clientId, now);
+        while (true) {
+            long current = arrival.get();
+            if (current == RETIRED) {
+                clients.remove(clientId, arrival); // In case the sweep has not got to it yet
+                arrival = bucket(clientId, now);
+                continue;
+            }
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            if (next - now > burstWindowNanos) {
+                return false;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // Forgets clients whose bucket has refilled completely; dropping them loses nothing
+    public void removeIdleClients() {
+        long now = System.nanoTime();
+        for (Map.Entry<String, AtomicLong> client : clients.entrySet()) {
+            AtomicLong arrival = client.getValue();
+            long current = arrival.get();
+            // Fails if a token was taken since the read, and the client stays
+            if (current != RETIRED && current - now <= 0 && arrival.compareAndSet(current, RETIRED)) {
+                clients.remove(client.getKey(), arrival);
+            }
+        }
+    }
+
+    private AtomicLong bucket(String clientId, long now) {
+        AtomicLong arrival = clients.get(clientId);
+        return arrival != null ? arrival : clients.computeIfAbsent(clientId, key -> new AtomicLong(now));
+    }
+
+    public int getTrackedClients() {
+        return clients.size();
+    }
+}
@@ -0,0 +1,80 @@
+package library.audit;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one loan consistency audit
+ * Only mismatches that were still present when rechecked under the library
+ * lock are listed, so loans that changed while the scan ran are not reported.
+ */
+public class AuditReport {
+    private static final int PRINTED_MISMATCHES = 20;
+
+    private final int booksScanned;
+    private final int membersScanned;
+    private final List<LoanMismatch> mismatches;
+    private final int repaired;
+    private final long elapsedNanos;
+
+    AuditReport(int booksScanned, int membersScanned, List<LoanMismatch> mismatches, int repaired, long elapsedNanos) {
+        this.booksScanned = booksScanned;
+        this.membersScanned = membersScanned;
+        this.mismatches = Collections.unmodifiableList(mismatches);
+        this.repaired = repaired;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Getters
+    public int getBooksScanned() {
+        return booksScanned;
+    }
+
+    public int getMembersScanned() {
+        return membersScanned;
+    }
+
+    public List<LoanMismatch> getMismatches() {
+        return mismatches;
+    }
+
+    public int getRepaired() {
+        return repaired;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public boolean isConsistent() {
+        return mismatches.isEmpty();
+    }
+
+    public Map<LoanMismatch.Type, Integer> getCountsByType() {
+        Map<LoanMismatch.Type, Integer> counts = new EnumMap<>(LoanMismatch.Type.class);
+        for (LoanMismatch mismatch : mismatches) {
+            counts.merge(mismatch.getType(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Audited %d books and %d members in %.1f ms: %d mismatch(es), %d repaired%n",
+                booksScanned, membersScanned, elapsedNanos / 1e6, mismatches.size(), repaired));
+        for (Map.Entry<LoanMismatch.Type, Integer> entry : getCountsByType().entrySet()) {
+            sb.append(String.format("  %-30s %d%n", entry.getKey(), entry.getValue()));
+        }
+        for (int i = 0; i < Math.min(PRINTED_MISMATCHES, mismatches.size()); i++) {
+            sb.append("  ").append(mismatches.get(i)).append(System.lineSeparator());
+        }
+        if (mismatches.size() > PRINTED_MISMATCHES) {
+            sb.append("  ... and ").append(mismatches.size() - PRINTED_MISMATCHES).append(" more")
+                    .append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
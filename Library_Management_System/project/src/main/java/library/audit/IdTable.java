@@ -0,0 +1,97 @@
+package library.audit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Interns string ids as dense ints (their position in the id array)
+ * The table is split into shards by hash so the shards can be filled in
+ * parallel; each shard is an open-addressing array of positions, which
+ * keeps the table to one int per slot plus the ids themselves.
+ */
+final class IdTable {
+    private static final int EMPTY = -1;
+
+    private final String[] ids;
+    private final int shardBits;
+    private final int[][] shards;
+
+    private IdTable(String[] ids, int shardBits) {
+        this.ids = ids;
+        this.shardBits = shardBits;
+        this.shards = new int[1 << shardBits][];
+    }
+
+    // Builds the table with one task per shard; ids must be distinct
+    static IdTable build(String[] ids, ExecutorService pool, int parallelism) throws InterruptedException {
+        int shardBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, parallelism) - 1);
+        IdTable table = new IdTable(ids, shardBits);
+        int shardCount = table.shards.length;
+
+        // One pass sorts the positions by shard, so each task reads only its own ids
+        int shardMask = shardCount - 1;
+        int[] starts = new int[shardCount + 1];
+        for (String id : ids) {
+            starts[(spread(id.hashCode()) & shardMask) + 1]++;
+        }
+        for (int shard = 0; shard < shardCount; shard++) {
+            starts[shard + 1] += starts[shard];
+        }
+        int[] positions = new int[ids.length];
+        int[] next = Arrays.copyOf(starts, shardCount);
+        for (int i = 0; i < ids.length; i++) {
+            positions[next[spread(ids[i].hashCode()) & shardMask]++] = i;
+        }
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            tasks.add(() -> {
+                table.fillShard(current, positions, starts[current], starts[current + 1]);
+                return null;
+            });
+        }
+        LoanAuditor.runAll(pool, tasks);
+        return table;
+    }
+
+    // Fills the shard from positions[from, to), the ids that hash to it
+    private void fillShard(int shard, int[] positions, int from, int to) {
+        int capacity = Integer.highestOneBit(Math.max(4, (to - from) * 2 - 1)) << 1;
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        int mask = slots.length - 1;
+        for (int p = from; p < to; p++) {
+            int i = positions[p];
+            int index = (spread(ids[i].hashCode()) >>> shardBits) & mask;
+            while (slots[index] != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            slots[index] = i;
+        }
+        shards[shard] = slots;
+    }
+
+    // Position of the id in the array the table was built from, or -1
+    int indexOf(String id) {
+        int hash = spread(id.hashCode());
+        int[] slots = shards[hash & ((1 << shardBits) - 1)];
+        int mask = slots.length - 1;
+        int index = (hash >>> shardBits) & mask;
+        while (slots[index] != EMPTY) {
+            if (ids[slots[index]].equals(id)) {
+                return slots[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
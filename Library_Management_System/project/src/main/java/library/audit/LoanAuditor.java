@@ -0,0 +1,245 @@
+package library.audit;
+
+import library.exceptions.MemberNotFoundException;
+import library.io.LibrarySnapshot;
+import library.models.Book;
+import library.models.Member;
+import library.services.LibrarySystem;
+import library.services.RecordCopies;
+import library.time.LibraryClock;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Checks that books and members agree about every loan
+ * Book and member ids are interned as their positions in the scanned arrays,
+ * so both sides reduce to int arrays and bitmaps: the book pass records the
+ * member each book claims, the member pass marks every loan its member
+ * confirms, and books left unmarked are the orphans. Each pass is split
+ * into chunks run by a pool of threads.
+ *
+ * The scan reads copies of the records taken in one lock hold, so it can
+ * run against a live library and still see both sides of every loan as
+ * they were at one moment. Anything it finds is rechecked (and optionally
+ * repaired) under the lock before it is reported, which drops loans that
+ * merely changed since the copy was taken.
+ *
+ * Usage: LoanAuditor SNAPSHOT [--threads=N] [--repair] [--save=FILE]
+ */
+public class LoanAuditor {
+    private static final int NOT_ISSUED = -1;
+    private static final int UNKNOWN_MEMBER = -2;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final LibrarySystem librarySystem;
+    private final int threads;
+
+    public LoanAuditor(LibrarySystem librarySystem) {
+        this(librarySystem, Runtime.getRuntime().availableProcessors());
+    }
+
+    public LoanAuditor(LibrarySystem librarySystem, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Threads must be positive");
+        }
+        this.librarySystem = librarySystem;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: LoanAuditor SNAPSHOT [--threads=N] [--repair] [--save=FILE]");
+            System.exit(2);
+        }
+        Path snapshot = Paths.get(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean repair = false;
+        Path save = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--threads=")) {
+                threads = Integer.parseInt(args[i].substring("--threads=".length()));
+            } else if (args[i].equals("--repair")) {
+                repair = true;
+            } else if (args[i].startsWith("--save=")) {
+                save = Paths.get(args[i].substring("--save=".length()));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        long start = System.nanoTime();
+        LibrarySystem librarySystem = new LibrarySystem(LibraryClock.system(), false);
+        LibrarySnapshot.importForFastStart(snapshot, librarySystem);
+        System.out.printf("Loaded %s in %.1f s%n", snapshot, (System.nanoTime() - start) / 1e9);
+
+        AuditReport report = new LoanAuditor(librarySystem, threads).audit(repair);
+        System.out.print(report);
+        if (save != null) {
+            LibrarySnapshot.exportTo(librarySystem, save);
+            System.out.println("Saved to " + save);
+        }
+    }
+
+    public AuditReport audit(boolean repair) throws InterruptedException {
+        long start = System.nanoTime();
+        RecordCopies records = librarySystem.copyRecords();
+        Book[] books = records.getBooks().toArray(new Book[0]);
+        Member[] members = records.getMembers().toArray(new Member[0]);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<LoanMismatch> suspects = new ArrayList<>();
+        try {
+            String[] bookIds = new String[books.length];
+            String[] memberIds = new String[members.length];
+            runChunks(pool, books.length, suspects, (from, to, found) -> {
+                for (int b = from; b < to; b++) {
+                    bookIds[b] = books[b].getBookId();
+                }
+            });
+            runChunks(pool, members.length, suspects, (from, to, found) -> {
+                for (int m = from; m < to; m++) {
+                    memberIds[m] = members[m].getMemberId();
+                }
+            });
+            IdTable bookTable = IdTable.build(bookIds, pool, threads);
+            IdTable memberTable = IdTable.build(memberIds, pool, threads);
+
+            // Book side: which member each book says it is issued to
+            int[] claimedMember = new int[books.length];
+            runChunks(pool, books.length, suspects, (from, to, found) -> {
+                for (int b = from; b < to; b++) {
+                    Book book = books[b];
+                    String memberId = book.getIssuedTo();
+                    if (book.isAvailable() || memberId == null) {
+                        claimedMember[b] = NOT_ISSUED;
+                        continue;
+                    }
+                    int m = memberTable.indexOf(memberId);
+                    claimedMember[b] = m >= 0 ? m : UNKNOWN_MEMBER;
+                    if (m < 0) {
+                        found.add(new LoanMismatch(LoanMismatch.Type.BOOK_ISSUED_TO_UNKNOWN_MEMBER,
+                                bookIds[b], memberId));
+                    }
+                }
+            });
+
+            // Member side: every listed loan must be claimed by the book, confirmed loans are marked
+            AtomicLongArray confirmed = new AtomicLongArray((books.length + 63) >>> 6);
+            runChunks(pool, members.length, suspects, (from, to, found) -> {
+                for (int m = from; m < to; m++) {
+                    Member member = members[m];
+                    int count = member.getIssuedBooksCount();
+                    if (count > librarySystem.getMaxBooksAllowed(member)) {
+                        found.add(new LoanMismatch(LoanMismatch.Type.MEMBER_OVER_LIMIT, null, memberIds[m]));
+                    }
+                    for (int i = 0; i < count; i++) {
+                        String bookId = member.getIssuedBookId(i);
+                        int b = bookTable.indexOf(bookId);
+                        if (b < 0) {
+                            found.add(new LoanMismatch(LoanMismatch.Type.MEMBER_LISTS_UNKNOWN_BOOK,
+                                    bookId, memberIds[m]));
+                        } else if (claimedMember[b] != m) {
+                            found.add(new LoanMismatch(LoanMismatch.Type.MEMBER_LISTS_UNISSUED_BOOK,
+                                    bookId, memberIds[m]));
+                        } else {
+                            setBit(confirmed, b);
+                        }
+                    }
+                }
+            });
+
+            // Issued books no member confirmed
+            runChunks(pool, books.length, suspects, (from, to, found) -> {
+                for (int b = from; b < to; b++) {
+                    int m = claimedMember[b];
+                    if (m >= 0 && (confirmed.get(b >>> 6) & (1L << b)) == 0) {
+                        found.add(new LoanMismatch(LoanMismatch.Type.BOOK_MISSING_FROM_MEMBER,
+                                bookIds[b], memberIds[m]));
+                    }
+                }
+            });
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<LoanMismatch> mismatches = new ArrayList<>();
+        int repaired = 0;
+        for (LoanMismatch suspect : suspects) {
+            if (suspect.getType() == LoanMismatch.Type.MEMBER_OVER_LIMIT) {
+                if (isOverLimit(suspect.getMemberId())) {
+                    mismatches.add(suspect); // Reported only, the member keeps the loans
+                }
+            } else if (librarySystem.reconcileLoan(suspect.getBookId(), suspect.getMemberId(), repair)) {
+                mismatches.add(suspect);
+                if (repair) {
+                    repaired++;
+                }
+            }
+        }
+        return new AuditReport(books.length, members.length, mismatches, repaired, System.nanoTime() - start);
+    }
+
+    private boolean isOverLimit(String memberId) {
+        try {
+            Member member = librarySystem.getMember(memberId);
+            return member.getIssuedBooksCount() > librarySystem.getMaxBooksAllowed(member);
+        } catch (MemberNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static void setBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+        } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+    }
+
+    // Splits [0, size) into chunks, runs them on the pool and collects what each chunk found
+    private void runChunks(ExecutorService pool, int size, List<LoanMismatch> suspects, ChunkTask task)
+            throws InterruptedException {
+        int chunks = Math.max(1, Math.min(size, threads * CHUNKS_PER_THREAD));
+        List<List<LoanMismatch>> results = new ArrayList<>();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int from = (int) ((long) size * chunk / chunks);
+            int to = (int) ((long) size * (chunk + 1) / chunks);
+            List<LoanMismatch> found = new ArrayList<>();
+            results.add(found);
+            tasks.add(() -> {
+                task.run(from, to, found);
+                return null;
+            });
+        }
+        runAll(pool, tasks);
+        for (List<LoanMismatch> found : results) {
+            suspects.addAll(found);
+        }
+    }
+
+    // Runs the tasks and waits for all of them; a failed task fails the audit
+    static void runAll(ExecutorService pool, List<Callable<Void>> tasks) throws InterruptedException {
+        for (Future<Void> future : pool.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Loan audit failed", e.getCause());
+            }
+        }
+    }
+
+    private interface ChunkTask {
+        void run(int from, int to, List<LoanMismatch> found);
+    }
+}
@@ -0,0 +1,56 @@
+package library.audit;
+
+/**
+ * One disagreement between a book's loan state and a member's loan list
+ */
+public class LoanMismatch {
+    public enum Type {
+        BOOK_ISSUED_TO_UNKNOWN_MEMBER("issued to a member who does not exist"),
+        BOOK_MISSING_FROM_MEMBER("issued to a member who does not list it"),
+        MEMBER_LISTS_UNKNOWN_BOOK("listed by a member but does not exist"),
+        MEMBER_LISTS_UNISSUED_BOOK("listed by a member it is not issued to"),
+        MEMBER_OVER_LIMIT("member holds more books than their tier allows");
+
+        private final String description;
+
+        Type(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final Type type;
+    private final String bookId;
+    private final String memberId;
+
+    public LoanMismatch(Type type, String bookId, String memberId) {
+        this.type = type;
+        this.bookId = bookId;
+        this.memberId = memberId;
+    }
+
+    // Getters
+    public Type getType() {
+        return type;
+    }
+
+    // Null for MEMBER_OVER_LIMIT
+    public String getBookId() {
+        return bookId;
+    }
+
+    public String getMemberId() {
+        return memberId;
+    }
+
+    @Override
+    public String toString() {
+        if (bookId == null) {
+            return "Member " + memberId + ": " + type.getDescription();
+        }
+        return "Book " + bookId + " / Member " + memberId + ": " + type.getDescription();
+    }
+}
@@ -0,0 +1,41 @@
+package library.branch;
+
+/**
+ * Available copies of one title at one branch, as seen from another branch
+ */
+public class BranchAvailability {
+    private final String branch;
+    private final int distance;
+    private final int availableCopies;
+    private final String bookId;
+
+    public BranchAvailability(String branch, int distance, int availableCopies, String bookId) {
+        this.branch = branch;
+        this.distance = distance;
+        this.availableCopies = availableCopies;
+        this.bookId = bookId;
+    }
+
+    // Getters
+    public String getBranch() {
+        return branch;
+    }
+
+    public int getDistance() {
+        return distance;
+    }
+
+    public int getAvailableCopies() {
+        return availableCopies;
+    }
+
+    // One of the available copies, e.g. to issue or transfer
+    public String getBookId() {
+        return bookId;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (distance %d): %d available, e.g. %s", branch, distance, availableCopies, bookId);
+    }
+}
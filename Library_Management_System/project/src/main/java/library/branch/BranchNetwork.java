@@ -0,0 +1,210 @@
+package library.branch;
+
+import library.exceptions.InvalidBranchNetworkException;
+import library.models.Book;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Library branches and the distances between them, precomputed
+ * Distances for pairs the file does not list are filled in with the
+ * shortest route through other branches, and every branch keeps the other
+ * reachable branches sorted by distance. A nearest-branch query is then a
+ * walk down one precomputed array. Instances are immutable.
+ *
+ * Branch network file format (java.util.Properties):
+ *   branches=central,north,harbor     branch names, new copies are shelved at the first
+ *   distance.central.north=4          distance between two branches, either direction
+ *   distance.north.harbor=7           pairs not listed go through other branches
+ */
+public final class BranchNetwork {
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final String DISTANCE_PREFIX = "distance.";
+
+    private final String[] names;
+    private final Map<String, Integer> index;
+    private final int[] distances; // [from * branches + to]
+    private final int[][] nearest; // per branch, the reachable branches by distance, itself first
+
+    private BranchNetwork(String[] names, Map<String, Integer> index, int[] distances) {
+        this.names = names;
+        this.index = index;
+        this.distances = distances;
+        this.nearest = new int[names.length][];
+        for (int from = 0; from < names.length; from++) {
+            nearest[from] = sortByDistance(from);
+        }
+    }
+
+    // The built-in network: the single branch every book starts at
+    public static BranchNetwork defaults() {
+        return new BranchNetwork(new String[] {Book.DEFAULT_BRANCH},
+                Collections.singletonMap(Book.DEFAULT_BRANCH, 0), new int[] {0});
+    }
+
+    public static BranchNetwork load(Path file) throws IOException, InvalidBranchNetworkException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return compile(properties);
+    }
+
+    public static BranchNetwork compile(Properties properties) throws InvalidBranchNetworkException {
+        String list = properties.getProperty("branches");
+        if (list == null || list.trim().isEmpty()) {
+            throw new InvalidBranchNetworkException("no branches defined");
+        }
+        String[] names = list.split(",");
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            names[i] = names[i].trim().toLowerCase();
+            if (names[i].isEmpty() || index.put(names[i], i) != null) {
+                throw new InvalidBranchNetworkException("empty or duplicate branch name");
+            }
+        }
+
+        int n = names.length;
+        long[] routes = new long[n * n];
+        Arrays.fill(routes, UNREACHABLE);
+        for (int i = 0; i < n; i++) {
+            routes[i * n + i] = 0;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (key.equals("branches")) {
+                continue;
+            }
+            String[] pair = key.startsWith(DISTANCE_PREFIX) ? key.substring(DISTANCE_PREFIX.length()).split("\\.") : null;
+            if (pair == null || pair.length != 2) {
+                throw new InvalidBranchNetworkException("unknown key " + key);
+            }
+            Integer from = index.get(pair[0].toLowerCase());
+            Integer to = index.get(pair[1].toLowerCase());
+            if (from == null || to == null) {
+                throw new InvalidBranchNetworkException("unknown branch in key " + key);
+            }
+            int distance = parseDistance(key, properties.getProperty(key));
+            routes[from * n + to] = Math.min(routes[from * n + to], distance);
+            routes[to * n + from] = Math.min(routes[to * n + from], distance);
+        }
+
+        // Floyd-Warshall: unlisted pairs take the shortest route through other branches
+        for (int via = 0; via < n; via++) {
+            for (int from = 0; from < n; from++) {
+                long toVia = routes[from * n + via];
+                if (toVia == UNREACHABLE) {
+                    continue;
+                }
+                for (int to = 0; to < n; to++) {
+                    long route = toVia + routes[via * n + to];
+                    if (route < routes[from * n + to]) {
+                        routes[from * n + to] = route;
+                    }
+                }
+            }
+        }
+        int[] distances = new int[n * n];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = (int) Math.min(routes[i], UNREACHABLE);
+        }
+        return new BranchNetwork(names, index, distances);
+    }
+
+    private static int parseDistance(String key, String value) throws InvalidBranchNetworkException {
+        try {
+            int distance = Integer.parseInt(value.trim());
+            if (distance < 0) {
+                throw new InvalidBranchNetworkException(key + " must not be negative");
+            }
+            return distance;
+        } catch (NumberFormatException e) {
+            throw new InvalidBranchNetworkException(key + " is not a number: " + value);
+        }
+    }
+
+    private int[] sortByDistance(int from) {
+        int n = names.length;
+        Integer[] order = new Integer[n];
+        int reachable = 0;
+        for (int to = 0; to < n; to++) {
+            if (distances[from * n + to] != UNREACHABLE) {
+                order[reachable++] = to;
+            }
+        }
+        // Stable, so equally distant branches keep file order; the branch itself always comes first
+        Arrays.sort(order, 0, reachable, (a, b) -> a.equals(b) ? 0 : a == from ? -1 : b == from ? 1
+                : Integer.compare(distances[from * n + a], distances[from * n + b]));
+        int[] sorted = new int[reachable];
+        for (int i = 0; i < reachable; i++) {
+            sorted[i] = order[i];
+        }
+        return sorted;
+    }
+
+    // Lookups; branch names are expected in lower case, as Book stores them
+    public int branchOf(String branch) {
+        Integer i = index.get(branch);
+        return i != null ? i : -1;
+    }
+
+    public boolean hasBranch(String branch) {
+        return index.containsKey(branch);
+    }
+
+    public int getBranchCount() {
+        return names.length;
+    }
+
+    public String getBranchName(int branch) {
+        return names[branch];
+    }
+
+    public List<String> getBranchNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    // Branch new copies are shelved at
+    public String getDefaultBranch() {
+        return names[0];
+    }
+
+    // UNREACHABLE if no route connects the two branches
+    public int getDistance(int from, int to) {
+        return distances[from * names.length + to];
+    }
+
+    // Number of branches reachable from the branch, including itself
+    public int getReachableCount(int from) {
+        return nearest[from].length;
+    }
+
+    // The rank-th closest reachable branch; rank 0 is the branch itself
+    public int getNearestBranch(int from, int rank) {
+        return nearest[from][rank];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int from = 0; from < names.length; from++) {
+            sb.append(names[from]).append(from == 0 ? " (default)" : "").append(":");
+            for (int rank = 1; rank < nearest[from].length; rank++) {
+                int to = nearest[from][rank];
+                sb.append(rank > 1 ? ", " : " ").append(names[to]).append(" ").append(getDistance(from, to));
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
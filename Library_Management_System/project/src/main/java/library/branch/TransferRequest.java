@@ -0,0 +1,52 @@
+package library.branch;
+
+import java.time.LocalDate;
+
+/**
+ * A copy on its way from one branch to another
+ * The copy cannot be issued until the transfer is completed at the
+ * destination or cancelled.
+ */
+public class TransferRequest {
+    private final String transferId;
+    private final String bookId;
+    private final String fromBranch;
+    private final String toBranch;
+    private final LocalDate requestDate;
+
+    public TransferRequest(String transferId, String bookId, String fromBranch, String toBranch,
+                           LocalDate requestDate) {
+        this.transferId = transferId;
+        this.bookId = bookId;
+        this.fromBranch = fromBranch;
+        this.toBranch = toBranch;
+        this.requestDate = requestDate;
+    }
+
+    // Getters
+    public String getTransferId() {
+        return transferId;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public String getFromBranch() {
+        return fromBranch;
+    }
+
+    public String getToBranch() {
+        return toBranch;
+    }
+
+    public LocalDate getRequestDate() {
+        return requestDate;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Transfer{ID='%s', Book='%s', From='%s', To='%s', Requested=%s}",
+                transferId, bookId, fromBranch, toBranch, requestDate);
+    }
+}
@@ -0,0 +1,66 @@
+package library.cache;
+
+import library.models.Book;
+import library.models.Member;
+
+import java.util.function.Supplier;
+
+/**
+ * Caches the detailed text of books and members
+ * An entry remembers the record version it was rendered from, so any change
+ * through issueBook, returnBook or a setter makes it stale on the next lookup.
+ * Book details also depend on the current day because of the overdue line,
+ * and member details on the loan limit of the member's tier.
+ */
+public class RenderCache {
+    private final SegmentedLruCache<String, Rendering> books;
+    private final SegmentedLruCache<String, Rendering> members;
+
+    public RenderCache(int maximumSize) {
+        this.books = new SegmentedLruCache<>(maximumSize);
+        this.members = new SegmentedLruCache<>(maximumSize);
+    }
+
+    public String bookDetails(Book book, long today) {
+        return render(books, book.getBookId(), book.getVersion(), today, () -> book.getDetailedInfo(today));
+    }
+
+    public String memberDetails(Member member, int maxBooksAllowed) {
+        return render(members, member.getMemberId(), member.getVersion(), maxBooksAllowed,
+                () -> member.getDetailedInfo(maxBooksAllowed));
+    }
+
+    public SegmentedLruCache<String, Rendering> getBookCache() {
+        return books;
+    }
+
+    public SegmentedLruCache<String, Rendering> getMemberCache() {
+        return members;
+    }
+
+    // context is what else the text depends on: the day for books, the loan limit for members
+    private static String render(SegmentedLruCache<String, Rendering> cache, String id, long version,
+                                 long context, Supplier<String> renderer) {
+        Rendering rendering = cache.get(id);
+        if (rendering == null || rendering.version != version || rendering.context != context) {
+            rendering = new Rendering(version, context, renderer.get());
+            cache.put(id, rendering);
+        }
+        return rendering.details;
+    }
+
+    /**
+     * Rendered text for one version of a record, never changed once cached
+     */
+    public static final class Rendering {
+        private final long version;
+        private final long context;
+        private final String details;
+
+        private Rendering(long version, long context, String details) {
+            this.version = version;
+            this.context = context;
+            this.details = details;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package library.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Weight-bounded segmented LRU cache
+ * New entries start in a probation segment and are promoted to a protected
+ * segment on their second hit, so a burst of one-off lookups cannot push out
+ * the entries that are used over and over. Keeps hit, miss and eviction counts.
+ *
+ * Each entry weighs what the weigher says (one by default, which bounds the
+ * number of entries) and the total weight is kept under the maximum. A value
+ * heavier than the probation segment is not cached at all, so one huge entry
+ * cannot flush everything else.
+ */
+public class SegmentedLruCache<K, V> {
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final long maximumWeight;
+    private final long protectedCapacity;
+    private final ToIntFunction<V> weigher;
+    private final LinkedHashMap<K, V> probation;
+    private final LinkedHashMap<K, V> protectedSegment;
+    private long probationWeight;
+    private long protectedWeight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    public SegmentedLruCache(int maximumSize) {
+        this(maximumSize, value -> 1);
+    }
+
+    public SegmentedLruCache(long maximumWeight, ToIntFunction<V> weigher) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maximumWeight = maximumWeight;
+        this.protectedCapacity = (long) (maximumWeight * PROTECTED_RATIO);
+        this.weigher = weigher;
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized V get(K key) {
+        V value = protectedSegment.get(key);
+        if (value != null) {
+            hits++;
+            return value;
+        }
+        value = probation.remove(key);
+        if (value == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        probationWeight -= weigher.applyAsInt(value);
+        promote(key, value);
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        int weight = weigher.applyAsInt(value);
+        if (weight > Math.max(1, maximumWeight - protectedCapacity)) {
+            remove(key); // Do not leave an older value behind
+            rejections++;
+            return;
+        }
+        V old = protectedSegment.get(key);
+        if (old != null) {
+            protectedSegment.put(key, value);
+            protectedWeight += weight - weigher.applyAsInt(old);
+            demoteIfNeeded();
+        } else {
+            old = probation.put(key, value);
+            probationWeight += weight - (old != null ? weigher.applyAsInt(old) : 0);
+        }
+        evictIfNeeded();
+    }
+
+    public synchronized void remove(K key) {
+        V value = protectedSegment.remove(key);
+        if (value != null) {
+            protectedWeight -= weigher.applyAsInt(value);
+            return;
+        }
+        value = probation.remove(key);
+        if (value != null) {
+            probationWeight -= weigher.applyAsInt(value);
+        }
+    }
+
+    public synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    public synchronized long weight() {
+        return probationWeight + protectedWeight;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    // Statistics
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    // Values too heavy to cache
+    public synchronized long getRejections() {
+        return rejections;
+    }
+
+    public synchronized double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Cache{Size=%d, Weight=%d/%d, Hits=%d, Misses=%d, Hit Rate=%.1f%%, Evictions=%d, "
+                        + "Too Large=%d}",
+                size(), weight(), maximumWeight, hits, misses, getHitRate() * 100, evictions, rejections);
+    }
+
+    private void promote(K key, V value) {
+        protectedSegment.put(key, value);
+        protectedWeight += weigher.applyAsInt(value);
+        demoteIfNeeded();
+        evictIfNeeded();
+    }
+
+    // Moves the least recently used protected entries back to probation
+    private void demoteIfNeeded() {
+        Iterator<Map.Entry<K, V>> eldest = protectedSegment.entrySet().iterator();
+        while (protectedWeight > protectedCapacity && eldest.hasNext()) {
+            Map.Entry<K, V> entry = eldest.next();
+            eldest.remove();
+            int weight = weigher.applyAsInt(entry.getValue());
+            protectedWeight -= weight;
+            probation.put(entry.getKey(), entry.getValue());
+            probationWeight += weight;
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<V> eldest = probation.values().iterator();
+        while (weight() > maximumWeight && eldest.hasNext()) {
+            probationWeight -= weigher.applyAsInt(eldest.next());
+            eldest.remove();
+            evictions++;
+        }
+    }
+}
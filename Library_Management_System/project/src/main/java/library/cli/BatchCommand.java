@@ -0,0 +1,105 @@
+package library.cli;
+
+/**
+ * One parsed line of a batch script
+ * Lines are tab-separated: the command name followed by its arguments.
+ */
+class BatchCommand {
+    enum Type { ISSUE, RETURN, RENEW, HOLD, TRANSFER, NEAREST, ADD_BOOK, ADD_MEMBER, SEARCH, REPORT, INVALID }
+
+    private final long lineNumber;
+    private final Type type;
+    private final String[] arguments;
+    private final String error;
+
+    private BatchCommand(long lineNumber, Type type, String[] arguments, String error) {
+        this.lineNumber = lineNumber;
+        this.type = type;
+        this.arguments = arguments;
+        this.error = error;
+    }
+
+    // Returns null for blank lines and # comments
+    static BatchCommand parse(long lineNumber, String line) {
+        if (line.trim().isEmpty() || line.startsWith("#")) {
+            return null;
+        }
+        String[] parts = line.split("\t", -1);
+        String[] arguments = new String[parts.length - 1];
+        for (int i = 1; i < parts.length; i++) {
+            arguments[i - 1] = parts[i].trim();
+        }
+
+        Type type;
+        int expectedArguments;
+        switch (parts[0].trim().toLowerCase()) {
+            case "issue":
+                type = Type.ISSUE;
+                expectedArguments = 2;
+                break;
+            case "return":
+                type = Type.RETURN;
+                expectedArguments = 2;
+                break;
+            case "renew":
+                type = Type.RENEW;
+                expectedArguments = 2;
+                break;
+            case "hold":
+                type = Type.HOLD;
+                expectedArguments = 2;
+                break;
+            case "transfer":
+                type = Type.TRANSFER;
+                expectedArguments = 2;
+                break;
+            case "nearest":
+                type = Type.NEAREST;
+                expectedArguments = 3;
+                break;
+            case "add-book":
+                type = Type.ADD_BOOK;
+                expectedArguments = 4;
+                break;
+            case "add-member":
+                type = Type.ADD_MEMBER;
+                expectedArguments = 4;
+                break;
+            case "search":
+                type = Type.SEARCH;
+                expectedArguments = 1;
+                break;
+            case "report":
+                type = Type.REPORT;
+                expectedArguments = 1;
+                break;
+            default:
+                return invalid(lineNumber, "Unknown command: " + parts[0].trim());
+        }
+
+        if (arguments.length != expectedArguments) {
+            return invalid(lineNumber, parts[0].trim() + " expects " + expectedArguments + " argument(s)");
+        }
+        return new BatchCommand(lineNumber, type, arguments, null);
+    }
+
+    private static BatchCommand invalid(long lineNumber, String error) {
+        return new BatchCommand(lineNumber, Type.INVALID, new String[0], error);
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    Type getType() {
+        return type;
+    }
+
+    String getArgument(int index) {
+        return arguments[index];
+    }
+
+    String getError() {
+        return error;
+    }
+}
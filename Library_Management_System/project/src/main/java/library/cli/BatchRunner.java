@@ -0,0 +1,272 @@
+package library.cli;
+
+import library.branch.BranchAvailability;
+import library.branch.TransferRequest;
+import library.exceptions.LibraryException;
+import library.io.RecordWriter;
+import library.models.Book;
+import library.models.Member;
+import library.services.LibrarySystem;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Non-interactive mode for the Library Management System
+ * A reader thread parses the script into batches of commands while the
+ * calling thread executes them against the LibrarySystem, so parsing and
+ * execution overlap. Every command produces one tab-separated result line:
+ *   OK    line  [details...]
+ *   ERROR line  message
+ * A throughput summary is printed to stderr at the end.
+ */
+public class BatchRunner {
+    private static final int BATCH_SIZE = 1024;
+    private static final int QUEUED_BATCHES = 16;
+    private static final int NEAREST_BRANCHES = 5;
+
+    private final LibrarySystem librarySystem;
+    private final RecordWriter out;
+    private long executed;
+    private long failed;
+
+    public BatchRunner(LibrarySystem librarySystem, OutputStream out) {
+        this.librarySystem = librarySystem;
+        this.out = new RecordWriter(out);
+    }
+
+    public void run(BufferedReader script) throws IOException {
+        BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(QUEUED_BATCHES);
+        Thread parser = new Thread(() -> parse(script, queue), "batch-parser");
+        parser.setDaemon(true);
+        long start = System.nanoTime();
+        parser.start();
+
+        try {
+            while (true) {
+                Batch batch = queue.take();
+                if (batch.failure != null) {
+                    throw batch.failure;
+                }
+                if (batch.commands.isEmpty()) {
+                    break;
+                }
+                for (BatchCommand command : batch.commands) {
+                    execute(command);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch run interrupted", e);
+        } finally {
+            out.flush();
+        }
+
+        long elapsedNanos = Math.max(System.nanoTime() - start, 1);
+        System.err.printf("Processed %d commands (%d failed) in %.1f ms, %.0f commands/s%n",
+                executed, failed, elapsedNanos / 1e6, executed * 1e9 / elapsedNanos);
+    }
+
+    public long getExecuted() {
+        return executed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    // Runs on the parser thread
+    private static void parse(BufferedReader script, BlockingQueue<Batch> queue) {
+        try {
+            List<BatchCommand> commands = new ArrayList<>(BATCH_SIZE);
+            long lineNumber = 0;
+            String line;
+            while ((line = script.readLine()) != null) {
+                BatchCommand command = BatchCommand.parse(++lineNumber, line);
+                if (command == null) {
+                    continue;
+                }
+                commands.add(command);
+                if (commands.size() == BATCH_SIZE) {
+                    queue.put(new Batch(commands, null));
+                    commands = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!commands.isEmpty()) {
+                queue.put(new Batch(commands, null));
+            }
+            queue.put(new Batch(new ArrayList<>(), null));
+        } catch (IOException e) {
+            putQuietly(queue, new Batch(new ArrayList<>(), e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void putQuietly(BlockingQueue<Batch> queue, Batch batch) {
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(BatchCommand command) throws IOException {
+        executed++;
+        try {
+            switch (command.getType()) {
+                case ISSUE:
+                    librarySystem.issueBook(command.getArgument(0), command.getArgument(1));
+                    ok(command).newLine();
+                    break;
+                case RETURN:
+                    librarySystem.returnBook(command.getArgument(0), command.getArgument(1));
+                    ok(command).newLine();
+                    break;
+                case RENEW:
+                    librarySystem.renewBook(command.getArgument(0), command.getArgument(1));
+                    ok(command).newLine();
+                    break;
+                case HOLD:
+                    librarySystem.placeHold(command.getArgument(0), command.getArgument(1));
+                    ok(command).newLine();
+                    break;
+                case TRANSFER: {
+                    TransferRequest transfer = librarySystem.requestTransfer(command.getArgument(0),
+                            command.getArgument(1));
+                    ok(command).write('\t').write(transfer.getTransferId()).newLine();
+                    break;
+                }
+                case NEAREST: {
+                    List<BranchAvailability> branches = librarySystem.findNearestCopies(command.getArgument(0),
+                            command.getArgument(1), command.getArgument(2), NEAREST_BRANCHES);
+                    writeBranches(ok(command), branches).newLine();
+                    break;
+                }
+                case ADD_BOOK:
+                    librarySystem.addBook(command.getArgument(0), command.getArgument(1),
+                            command.getArgument(2), command.getArgument(3));
+                    ok(command).newLine();
+                    break;
+                case ADD_MEMBER:
+                    librarySystem.addMember(command.getArgument(0), command.getArgument(1),
+                            command.getArgument(2), command.getArgument(3));
+                    ok(command).newLine();
+                    break;
+                case SEARCH:
+                    writeBookIds(ok(command), librarySystem.searchBooks(command.getArgument(0))).newLine();
+                    break;
+                case REPORT:
+                    report(command);
+                    break;
+                default:
+                    error(command, command.getError());
+            }
+        } catch (LibraryException e) {
+            error(command, e.getMessage());
+        } catch (RuntimeException e) {
+            // A failing command is reported and the batch goes on with the next one
+            error(command, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    private void report(BatchCommand command) throws IOException {
+        switch (command.getArgument(0).toLowerCase()) {
+            case "available":
+                writeBookIds(ok(command), librarySystem.getAvailableBooks()).newLine();
+                break;
+            case "issued":
+                writeBookIds(ok(command), librarySystem.getIssuedBooks()).newLine();
+                break;
+            case "overdue":
+                writeBookIds(ok(command), librarySystem.getOverdueBooks()).newLine();
+                break;
+            case "members":
+                writeMemberIds(ok(command), librarySystem.getAllMembers()).newLine();
+                break;
+            case "stats":
+                ok(command)
+                        .write("\ttotal=").write(librarySystem.getTotalBooks())
+                        .write("\tavailable=").write(librarySystem.getAvailableBooksCount())
+                        .write("\tissued=").write(librarySystem.getIssuedBooksCount())
+                        .write("\toverdue=").write(librarySystem.getOverdueBooksCount())
+                        .write("\tmembers=").write(librarySystem.getTotalMembers())
+                        .newLine();
+                break;
+            default:
+                error(command, "Unknown report: " + command.getArgument(0));
+        }
+    }
+
+    // Output helpers
+    private RecordWriter ok(BatchCommand command) throws IOException {
+        return out.write("OK\t").write(command.getLineNumber());
+    }
+
+    private void error(BatchCommand command, String message) throws IOException {
+        failed++;
+        out.write("ERROR\t").write(command.getLineNumber()).write('\t').write(message).newLine();
+    }
+
+    private static RecordWriter writeBookIds(RecordWriter writer, Collection<Book> books) throws IOException {
+        writer.write('\t').write(books.size()).write('\t');
+        boolean first = true;
+        for (Book book : books) {
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write(book.getBookId());
+            first = false;
+        }
+        return writer;
+    }
+
+    // branch:distance:available copies for each branch
+    private static RecordWriter writeBranches(RecordWriter writer, List<BranchAvailability> branches)
+            throws IOException {
+        writer.write('\t').write(branches.size()).write('\t');
+        boolean first = true;
+        for (BranchAvailability branch : branches) {
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write(branch.getBranch()).write(':').write(branch.getDistance())
+                    .write(':').write(branch.getAvailableCopies());
+            first = false;
+        }
+        return writer;
+    }
+
+    private static RecordWriter writeMemberIds(RecordWriter writer, Collection<Member> members) throws IOException {
+        writer.write('\t').write(members.size()).write('\t');
+        boolean first = true;
+        for (Member member : members) {
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write(member.getMemberId());
+            first = false;
+        }
+        return writer;
+    }
+
+    /**
+     * A group of parsed commands handed from the parser to the executor
+     * An empty batch marks the end of the script.
+     */
+    private static class Batch {
+        private final List<BatchCommand> commands;
+        private final IOException failure;
+
+        private Batch(List<BatchCommand> commands, IOException failure) {
+            this.commands = commands;
+            this.failure = failure;
+        }
+    }
+}
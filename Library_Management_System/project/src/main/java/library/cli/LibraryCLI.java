@@ -1,12 +1,29 @@
 package library.cli;
 
+import library.audit.LoanAuditor;
+import library.branch.BranchAvailability;
+import library.branch.BranchNetwork;
+import library.branch.TransferRequest;
 import library.models.Book;
 import library.models.Member;
+import library.policy.LoanPolicyStore;
+import library.services.AutoRenewJob;
 import library.services.LibrarySystem;
+import library.services.RecordCopies;
 import library.exceptions.LibraryException;
-
+import library.events.EventStream;
+import library.io.LibrarySnapshot;
+import library.io.RecordWriter;
+import library.recommend.RecommendationEngine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Command Line Interface for the Library Management System
@@ -15,10 +32,14 @@ import java.util.Scanner;
 public class LibraryCLI {
     private LibrarySystem librarySystem;
     private Scanner scanner;
+    private RecordWriter console;
+    private RecommendationEngine recommendations;
 
     public LibraryCLI() {
         this.librarySystem = new LibrarySystem();
         this.scanner = new Scanner(System.in);
+        this.console = new RecordWriter(System.out);
+        this.recommendations = new RecommendationEngine(librarySystem);
     }
 
     public void start() {
@@ -50,7 +71,14 @@ public class LibraryCLI {
                     case 6:
                         librarySystem.displayStatistics();
                         break;
+                    case 7:
+                        dataMenu();
+                        break;
+                    case 8:
+                        branchMenu();
+                        break;
                     case 0:
+                        librarySystem.getLoanPolicies().stopWatching();
                         System.out.println("Thank you for using Library Management System!");
                         return;
                     default:
@@ -73,6 +101,8 @@ public class LibraryCLI {
         System.out.println("4. Search");
         System.out.println("5. Reports");
         System.out.println("6. Statistics");
+        System.out.println("7. Export/Import Data");
+        System.out.println("8. Branches and Transfers");
         System.out.println("0. Exit");
         System.out.println("================");
     }
@@ -83,6 +113,7 @@ public class LibraryCLI {
         System.out.println("2. View All Books");
         System.out.println("3. View Available Books");
         System.out.println("4. View Book Details");
+        System.out.println("5. Set Book Category");
         System.out.println("0. Back to Main Menu");
 
         int choice = getIntInput("Enter your choice: ");
@@ -100,6 +131,9 @@ public class LibraryCLI {
             case 4:
                 viewBookDetails();
                 break;
+            case 5:
+                setBookCategory();
+                break;
             case 0:
                 return;
             default:
@@ -112,6 +146,7 @@ public class LibraryCLI {
         System.out.println("1. Add Member");
         System.out.println("2. View All Members");
         System.out.println("3. View Member Details");
+        System.out.println("4. Set Member Tier");
         System.out.println("0. Back to Main Menu");
 
         int choice = getIntInput("Enter your choice: ");
@@ -126,6 +161,9 @@ public class LibraryCLI {
             case 3:
                 viewMemberDetails();
                 break;
+            case 4:
+                setMemberTier();
+                break;
             case 0:
                 return;
             default:
@@ -139,6 +177,10 @@ public class LibraryCLI {
         System.out.println("2. Return Book");
         System.out.println("3. View Issued Books");
         System.out.println("4. View Overdue Books");
+        System.out.println("5. Renew Book");
+        System.out.println("6. Place Hold");
+        System.out.println("7. Cancel Hold");
+        System.out.println("8. Auto-Renew Books Due Tomorrow");
         System.out.println("0. Back to Main Menu");
 
         int choice = getIntInput("Enter your choice: ");
@@ -156,6 +198,18 @@ public class LibraryCLI {
             case 4:
                 viewOverdueBooks();
                 break;
+            case 5:
+                renewBook();
+                break;
+            case 6:
+                placeHold();
+                break;
+            case 7:
+                cancelHold();
+                break;
+            case 8:
+                autoRenewDueTomorrow();
+                break;
             case 0:
                 return;
             default:
@@ -170,6 +224,10 @@ public class LibraryCLI {
         System.out.println("3. Search Books by Author");
         System.out.println("4. Search Books by ISBN");
         System.out.println("5. Search Members");
+        System.out.println("6. Search Members by Name");
+        System.out.println("7. Find Member by Email");
+        System.out.println("8. Find Members by Phone");
+        System.out.println("9. Recommend Books Similar to a Book");
         System.out.println("0. Back to Main Menu");
 
         int choice = getIntInput("Enter your choice: ");
@@ -190,6 +248,18 @@ public class LibraryCLI {
             case 5:
                 searchMembers();
                 break;
+            case 6:
+                searchMembersByName();
+                break;
+            case 7:
+                findMemberByEmail();
+                break;
+            case 8:
+                findMembersByPhone();
+                break;
+            case 9:
+                recommendBooks();
+                break;
             case 0:
                 return;
             default:
@@ -203,6 +273,8 @@ public class LibraryCLI {
         System.out.println("2. Issued Books Report");
         System.out.println("3. Overdue Books Report");
         System.out.println("4. Members Report");
+        System.out.println("5. Overdue Books Report as of Date");
+        System.out.println("6. Loan Consistency Audit");
         System.out.println("0. Back to Main Menu");
 
         int choice = getIntInput("Enter your choice: ");
@@ -220,6 +292,98 @@ public class LibraryCLI {
             case 4:
                 generateMembersReport();
                 break;
+            case 5:
+                generateOverdueBooksReportAsOf();
+                break;
+            case 6:
+                auditLoans();
+                break;
+            case 0:
+                return;
+            default:
+                System.out.println("Invalid choice.");
+        }
+    }
+
+    private void dataMenu() {
+        System.out.println("\n=== EXPORT/IMPORT DATA ===");
+        System.out.println("1. Export Snapshot");
+        System.out.println("2. Import Snapshot (replaces current data)");
+        System.out.println("3. Export Books and Members as Text");
+        System.out.println("4. Load Loan Policy File");
+        System.out.println("5. View Loan Policy");
+        System.out.println("0. Back to Main Menu");
+
+        int choice = getIntInput("Enter your choice: ");
+
+        switch (choice) {
+            case 1:
+                exportSnapshot();
+                break;
+            case 2:
+                importSnapshot();
+                break;
+            case 3:
+                exportText();
+                break;
+            case 4:
+                loadLoanPolicy();
+                break;
+            case 5:
+                System.out.println("\n=== LOAN POLICY ===");
+                System.out.print(librarySystem.getLoanPolicies().current());
+                break;
+            case 0:
+                return;
+            default:
+                System.out.println("Invalid choice.");
+        }
+    }
+
+    private void branchMenu() {
+        System.out.println("\n=== BRANCHES AND TRANSFERS ===");
+        System.out.println("1. Find Nearest Available Copies");
+        System.out.println("2. Set Book Branch");
+        System.out.println("3. Request Transfer of a Copy");
+        System.out.println("4. Request Nearest Copy for a Branch");
+        System.out.println("5. Complete Transfer");
+        System.out.println("6. Cancel Transfer");
+        System.out.println("7. View Open Transfers");
+        System.out.println("8. View Branch Network");
+        System.out.println("9. Load Branch Network File");
+        System.out.println("0. Back to Main Menu");
+
+        int choice = getIntInput("Enter your choice: ");
+
+        switch (choice) {
+            case 1:
+                findNearestCopies();
+                break;
+            case 2:
+                setBookBranch();
+                break;
+            case 3:
+                requestTransfer();
+                break;
+            case 4:
+                requestNearestTransfer();
+                break;
+            case 5:
+                completeTransfer();
+                break;
+            case 6:
+                cancelTransfer();
+                break;
+            case 7:
+                viewOpenTransfers();
+                break;
+            case 8:
+                System.out.println("\n=== BRANCH NETWORK ===");
+                System.out.print(librarySystem.getBranchNetwork());
+                break;
+            case 9:
+                loadBranchNetwork();
+                break;
             case 0:
                 return;
             default:
@@ -249,7 +413,7 @@ public class LibraryCLI {
         if (books.isEmpty()) {
             System.out.println("No books found.");
         } else {
-            books.forEach(System.out::println);
+            printBooks(books);
         }
     }
 
@@ -259,7 +423,7 @@ public class LibraryCLI {
         if (books.isEmpty()) {
             System.out.println("No available books.");
         } else {
-            books.forEach(System.out::println);
+            printBooks(books);
         }
     }
 
@@ -268,7 +432,18 @@ public class LibraryCLI {
         try {
             Book book = librarySystem.getBook(bookId);
             System.out.println("\n=== BOOK DETAILS ===");
-            System.out.println(book.getDetailedInfo());
+            System.out.println(librarySystem.getBookDetails(book));
+        } catch (LibraryException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private void setBookCategory() {
+        String bookId = getStringInput("Enter Book ID: ");
+        String category = getStringInput("Enter Category: ");
+        try {
+            librarySystem.setBookCategory(bookId, category);
+            System.out.println("Book category updated successfully!");
         } catch (LibraryException e) {
             System.out.println("Error: " + e.getMessage());
         }
@@ -296,7 +471,7 @@ public class LibraryCLI {
         if (members.isEmpty()) {
             System.out.println("No members found.");
         } else {
-            members.forEach(System.out::println);
+            printMembers(members);
         }
     }
 
@@ -305,7 +480,18 @@ public class LibraryCLI {
         try {
             Member member = librarySystem.getMember(memberId);
             System.out.println("\n=== MEMBER DETAILS ===");
-            System.out.println(member.getDetailedInfo());
+            System.out.println(librarySystem.getMemberDetails(member));
+        } catch (LibraryException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private void setMemberTier() {
+        String memberId = getStringInput("Enter Member ID: ");
+        String tier = getStringInput("Enter Tier " + librarySystem.getLoanPolicies().current().getTierNames() + ": ");
+        try {
+            librarySystem.setMemberTier(memberId, tier);
+            System.out.println("Member tier updated successfully!");
         } catch (LibraryException e) {
             System.out.println("Error: " + e.getMessage());
         }
@@ -338,13 +524,62 @@ public class LibraryCLI {
         }
     }
 
+    private void renewBook() {
+        System.out.println("\n=== RENEW BOOK ===");
+        String bookId = getStringInput("Enter Book ID: ");
+        String memberId = getStringInput("Enter Member ID: ");
+
+        try {
+            librarySystem.renewBook(bookId, memberId);
+            System.out.println("Book renewed successfully! New due date: " + librarySystem.getBook(bookId).getDueDate());
+        } catch (LibraryException e) {
+            System.out.println("Error renewing book: " + e.getMessage());
+        }
+    }
+
+    private void placeHold() {
+        System.out.println("\n=== PLACE HOLD ===");
+        String bookId = getStringInput("Enter Book ID: ");
+        String memberId = getStringInput("Enter Member ID: ");
+
+        try {
+            librarySystem.placeHold(bookId, memberId);
+            System.out.println("Hold placed successfully! Position in queue: " + librarySystem.getHolds(bookId).size());
+        } catch (LibraryException e) {
+            System.out.println("Error placing hold: " + e.getMessage());
+        }
+    }
+
+    private void cancelHold() {
+        System.out.println("\n=== CANCEL HOLD ===");
+        String bookId = getStringInput("Enter Book ID: ");
+        String memberId = getStringInput("Enter Member ID: ");
+
+        try {
+            librarySystem.cancelHold(bookId, memberId);
+            System.out.println("Hold cancelled successfully!");
+        } catch (LibraryException e) {
+            System.out.println("Error cancelling hold: " + e.getMessage());
+        }
+    }
+
+    private void autoRenewDueTomorrow() {
+        try {
+            LocalDate tomorrow = librarySystem.getClock().todayDate().plusDays(1);
+            System.out.println(new AutoRenewJob(librarySystem).renewDueOn(tomorrow));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Auto-renewal interrupted.");
+        }
+    }
+
     private void viewIssuedBooks() {
         System.out.println("\n=== ISSUED BOOKS ===");
         List<Book> books = librarySystem.getIssuedBooks();
         if (books.isEmpty()) {
             System.out.println("No books are currently issued.");
         } else {
-            books.forEach(System.out::println);
+            printBooks(books);
         }
     }
 
@@ -354,9 +589,7 @@ public class LibraryCLI {
         if (books.isEmpty()) {
             System.out.println("No overdue books.");
         } else {
-            books.forEach(book -> {
-                System.out.println(book + " (Overdue by " + book.getDaysOverdue() + " days)");
-            });
+            printOverdueBooks(books, librarySystem.getClock().today());
         }
     }
 
@@ -368,7 +601,7 @@ public class LibraryCLI {
         if (books.isEmpty()) {
             System.out.println("No books found matching the query.");
         } else {
-            books.forEach(System.out::println);
+            printBooks(books);
         }
     }
 
@@ -379,7 +612,7 @@ public class LibraryCLI {
         if (books.isEmpty()) {
             System.out.println("No books found with that title.");
         } else {
-            books.forEach(System.out::println);
+            printBooks(books);
         }
     }
 
@@ -390,7 +623,7 @@ public class LibraryCLI {
         if (books.isEmpty()) {
             System.out.println("No books found by that author.");
         } else {
-            books.forEach(System.out::println);
+            printBooks(books);
         }
     }
 
@@ -401,7 +634,7 @@ public class LibraryCLI {
         if (books.isEmpty()) {
             System.out.println("No books found with that ISBN.");
         } else {
-            books.forEach(System.out::println);
+            printBooks(books);
         }
     }
 
@@ -412,7 +645,56 @@ public class LibraryCLI {
         if (members.isEmpty()) {
             System.out.println("No members found matching the query.");
         } else {
-            members.forEach(System.out::println);
+            printMembers(members);
+        }
+    }
+
+    private void searchMembersByName() {
+        String name = getStringInput("Enter name (or start of each name): ");
+        List<Member> members = librarySystem.searchMembersByName(name);
+        System.out.println("\n=== MEMBER SEARCH RESULTS BY NAME ===");
+        if (members.isEmpty()) {
+            System.out.println("No members found with that name.");
+        } else {
+            printMembers(members);
+        }
+    }
+
+    private void findMemberByEmail() {
+        String email = getStringInput("Enter email: ");
+        try {
+            Member member = librarySystem.getMemberByEmail(email);
+            System.out.println("\n=== MEMBER DETAILS ===");
+            System.out.println(librarySystem.getMemberDetails(member));
+        } catch (LibraryException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private void findMembersByPhone() {
+        String phone = getStringInput("Enter phone: ");
+        List<Member> members = librarySystem.getMembersByPhone(phone);
+        System.out.println("\n=== MEMBER SEARCH RESULTS BY PHONE ===");
+        if (members.isEmpty()) {
+            System.out.println("No members found with that phone.");
+        } else {
+            printMembers(members);
+        }
+    }
+
+    private void recommendBooks() {
+        String bookId = getStringInput("Enter Book ID: ");
+        try {
+            recommendations.update();
+            List<Book> books = recommendations.recommend(bookId, 5);
+            System.out.println("\n=== MEMBERS WHO BORROWED THIS ALSO BORROWED ===");
+            if (books.isEmpty()) {
+                System.out.println("Not enough borrowing history for this book yet.");
+            } else {
+                printBooks(books);
+            }
+        } catch (IOException | LibraryException e) {
+            System.out.println("Error: " + e.getMessage());
         }
     }
 
@@ -421,30 +703,238 @@ public class LibraryCLI {
         System.out.println("\n=== AVAILABLE BOOKS REPORT ===");
         List<Book> books = librarySystem.getAvailableBooks();
         System.out.println("Total Available Books: " + books.size());
-        books.forEach(System.out::println);
+        printBooks(books);
     }
 
     private void generateIssuedBooksReport() {
         System.out.println("\n=== ISSUED BOOKS REPORT ===");
         List<Book> books = librarySystem.getIssuedBooks();
         System.out.println("Total Issued Books: " + books.size());
-        books.forEach(System.out::println);
+        printBooks(books);
     }
 
     private void generateOverdueBooksReport() {
         System.out.println("\n=== OVERDUE BOOKS REPORT ===");
         List<Book> books = librarySystem.getOverdueBooks();
         System.out.println("Total Overdue Books: " + books.size());
-        books.forEach(book -> {
-            System.out.println(book + " (Overdue by " + book.getDaysOverdue() + " days)");
-        });
+        printOverdueBooks(books, librarySystem.getClock().today());
+    }
+
+    private void generateOverdueBooksReportAsOf() {
+        String input = getStringInput("Enter date (YYYY-MM-DD): ");
+        LocalDate asOf;
+        try {
+            asOf = LocalDate.parse(input);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date: " + input);
+            return;
+        }
+        System.out.println("\n=== OVERDUE BOOKS REPORT AS OF " + asOf + " ===");
+        List<Book> books = librarySystem.getOverdueBooks(asOf);
+        System.out.println("Total Overdue Books: " + books.size());
+        printOverdueBooks(books, asOf.toEpochDay());
     }
 
     private void generateMembersReport() {
         System.out.println("\n=== MEMBERS REPORT ===");
         List<Member> members = librarySystem.getAllMembers();
         System.out.println("Total Members: " + members.size());
-        members.forEach(System.out::println);
+        printMembers(members);
+    }
+
+    private void auditLoans() {
+        String answer = getStringInput("Repair mismatches? (y/n): ");
+        System.out.println("\n=== LOAN CONSISTENCY AUDIT ===");
+        try {
+            System.out.print(new LoanAuditor(librarySystem).audit(answer.equalsIgnoreCase("y")));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Audit interrupted.");
+        }
+    }
+
+    // Export/Import methods
+    private void exportSnapshot() {
+        String file = getStringInput("Enter snapshot file path: ");
+        try {
+            LibrarySnapshot.exportTo(librarySystem, Paths.get(file));
+            System.out.println("Snapshot exported successfully!");
+        } catch (IOException e) {
+            System.out.println("Error exporting snapshot: " + e.getMessage());
+        }
+    }
+
+    private void importSnapshot() {
+        String file = getStringInput("Enter snapshot file path: ");
+        LibrarySystem imported = new LibrarySystem(librarySystem.getClock(), false,
+                new EventStream(EventStream.DEFAULT_CAPACITY), librarySystem.getLoanPolicies());
+        imported.setBranchNetwork(librarySystem.getBranchNetwork());
+        try {
+            LibrarySnapshot.importFrom(Paths.get(file), imported);
+            librarySystem = imported;
+            recommendations = new RecommendationEngine(imported);
+            System.out.println("Snapshot imported successfully! Books: " + imported.getTotalBooks()
+                    + ", Members: " + imported.getTotalMembers());
+        } catch (IOException | LibraryException e) {
+            System.out.println("Error importing snapshot: " + e.getMessage());
+        }
+    }
+
+    private void loadLoanPolicy() {
+        String file = getStringInput("Enter loan policy file path: ");
+        try {
+            librarySystem.getLoanPolicies().load(Paths.get(file));
+            librarySystem.getLoanPolicies().startWatching(LoanPolicyStore.DEFAULT_WATCH_SECONDS, TimeUnit.SECONDS);
+            System.out.println("Loan policy loaded successfully! Changes to the file are picked up automatically.");
+            System.out.print(librarySystem.getLoanPolicies().current());
+        } catch (IOException | LibraryException e) {
+            System.out.println("Error loading loan policy: " + e.getMessage());
+        }
+    }
+
+    private void exportText() {
+        String file = getStringInput("Enter text file path: ");
+        RecordCopies records = librarySystem.copyRecords();
+        try (RecordWriter writer = new RecordWriter(Files.newOutputStream(Paths.get(file)))) {
+            for (Book book : records.getBooks()) {
+                writer.writeBook(book).newLine();
+            }
+            for (Member member : records.getMembers()) {
+                writer.writeMember(member).newLine();
+            }
+            System.out.println("Text export written successfully!");
+        } catch (IOException e) {
+            System.out.println("Error exporting text: " + e.getMessage());
+        }
+    }
+
+    // Branch and transfer methods
+    private void findNearestCopies() {
+        String title = getStringInput("Enter Title: ");
+        String author = getStringInput("Enter Author: ");
+        String branch = getStringInput("Enter your Branch: ");
+        try {
+            List<BranchAvailability> found = librarySystem.findNearestCopies(title, author, branch, 5);
+            System.out.println("\n=== NEAREST AVAILABLE COPIES ===");
+            if (found.isEmpty()) {
+                System.out.println("No available copy at a reachable branch.");
+            }
+            for (BranchAvailability availability : found) {
+                System.out.println(availability);
+            }
+        } catch (LibraryException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private void setBookBranch() {
+        String bookId = getStringInput("Enter Book ID: ");
+        String branch = getStringInput("Enter Branch: ");
+        try {
+            librarySystem.setBookBranch(bookId, branch);
+            System.out.println("Book branch updated successfully!");
+        } catch (LibraryException e) {
+            System.out.println("Error updating branch: " + e.getMessage());
+        }
+    }
+
+    private void requestTransfer() {
+        String bookId = getStringInput("Enter Book ID: ");
+        String branch = getStringInput("Enter destination Branch: ");
+        try {
+            TransferRequest transfer = librarySystem.requestTransfer(bookId, branch);
+            System.out.println("Transfer requested successfully! " + transfer);
+        } catch (LibraryException e) {
+            System.out.println("Error requesting transfer: " + e.getMessage());
+        }
+    }
+
+    private void requestNearestTransfer() {
+        String title = getStringInput("Enter Title: ");
+        String author = getStringInput("Enter Author: ");
+        String branch = getStringInput("Enter destination Branch: ");
+        try {
+            TransferRequest transfer = librarySystem.requestNearestTransfer(title, author, branch);
+            System.out.println("Transfer requested successfully! " + transfer);
+        } catch (LibraryException e) {
+            System.out.println("Error requesting transfer: " + e.getMessage());
+        }
+    }
+
+    private void completeTransfer() {
+        String transferId = getStringInput("Enter Transfer ID: ");
+        try {
+            librarySystem.completeTransfer(transferId);
+            System.out.println("Transfer completed successfully!");
+        } catch (LibraryException e) {
+            System.out.println("Error completing transfer: " + e.getMessage());
+        }
+    }
+
+    private void cancelTransfer() {
+        String transferId = getStringInput("Enter Transfer ID: ");
+        try {
+            librarySystem.cancelTransfer(transferId);
+            System.out.println("Transfer cancelled successfully!");
+        } catch (LibraryException e) {
+            System.out.println("Error cancelling transfer: " + e.getMessage());
+        }
+    }
+
+    private void viewOpenTransfers() {
+        System.out.println("\n=== OPEN TRANSFERS ===");
+        List<TransferRequest> transfers = librarySystem.getOpenTransfers();
+        if (transfers.isEmpty()) {
+            System.out.println("No open transfers.");
+        }
+        for (TransferRequest transfer : transfers) {
+            System.out.println(transfer);
+        }
+    }
+
+    private void loadBranchNetwork() {
+        String file = getStringInput("Enter branch network file path: ");
+        try {
+            librarySystem.setBranchNetwork(BranchNetwork.load(Paths.get(file)));
+            System.out.println("Branch network loaded successfully!");
+            System.out.print(librarySystem.getBranchNetwork());
+        } catch (IOException | LibraryException e) {
+            System.out.println("Error loading branch network: " + e.getMessage());
+        }
+    }
+
+    // Listing methods, written through the buffered record writer
+    private void printBooks(List<Book> books) {
+        try {
+            for (Book book : books) {
+                console.writeBook(book).newLine();
+            }
+            console.flush();
+        } catch (IOException e) {
+            System.out.println("Error printing books: " + e.getMessage());
+        }
+    }
+
+    private void printOverdueBooks(List<Book> books, long asOfEpochDay) {
+        try {
+            for (Book book : books) {
+                console.writeBook(book).write(" (Overdue by ").write(book.getDaysOverdue(asOfEpochDay)).write(" days)").newLine();
+            }
+            console.flush();
+        } catch (IOException e) {
+            System.out.println("Error printing books: " + e.getMessage());
+        }
+    }
+
+    private void printMembers(List<Member> members) {
+        try {
+            for (Member member : members) {
+                console.writeMember(member).newLine();
+            }
+            console.flush();
+        } catch (IOException e) {
+            System.out.println("Error printing members: " + e.getMessage());
+        }
     }
 
     // Utility methods
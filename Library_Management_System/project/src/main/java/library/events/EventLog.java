@@ -0,0 +1,207 @@
+package library.events;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Append-only file of published events, used to replay from a saved offset
+ * Each record is length-prefixed so a torn write at the end of the file is
+ * detected and dropped when the log is reopened; a record that does not
+ * decode is treated the same way, and the log is cut before it. A sparse in-memory index
+ * of sequence to file position keeps replays from scanning the whole file.
+ */
+public class EventLog implements Closeable {
+    private static final int INDEX_INTERVAL = 1024;
+    private static final int FLAG_BOOK = 1;
+    private static final int FLAG_MEMBER = 2;
+    private static final int MAX_RECORD_LENGTH = 8 + 1 + 8 + 1 + 2 * (2 + 65535); // Two UTF strings at most
+    private static final EventType[] TYPES = EventType.values();
+
+    private final Path file;
+    private final TreeMap<Long, Long> index;
+    private final ByteArrayOutputStream recordBytes;
+    private final DataOutputStream record;
+    private final OutputStream out;
+    private long size;
+    private long firstSequence;
+    private long nextSequence;
+    private volatile long flushedSize;
+    private volatile long flushedNextSequence;
+
+    public EventLog(Path file) throws IOException {
+        this.file = file;
+        this.index = new TreeMap<>();
+        this.recordBytes = new ByteArrayOutputStream(128);
+        this.record = new DataOutputStream(recordBytes);
+        this.firstSequence = -1;
+        recover();
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(size);
+        channel.position(size);
+        this.out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+        this.flushedSize = size;
+        this.flushedNextSequence = nextSequence;
+    }
+
+    // Sequence the next appended event must have
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    synchronized void append(LibraryEvent event) throws IOException {
+        if (event.getSequence() < nextSequence) {
+            throw new IOException("Event log already has sequence " + event.getSequence());
+        }
+        recordBytes.reset();
+        int flags = (event.getBookId() != null ? FLAG_BOOK : 0) | (event.getMemberId() != null ? FLAG_MEMBER : 0);
+        record.writeLong(event.getSequence());
+        record.writeByte(event.getType().ordinal());
+        record.writeLong(event.getEpochDay());
+        record.writeByte(flags);
+        if (event.getBookId() != null) {
+            record.writeUTF(event.getBookId());
+        }
+        if (event.getMemberId() != null) {
+            record.writeUTF(event.getMemberId());
+        }
+
+        if (firstSequence < 0) {
+            firstSequence = event.getSequence();
+        }
+        if (event.getSequence() % INDEX_INTERVAL == 0 || index.isEmpty()) {
+            index.put(event.getSequence(), size);
+        }
+        writeInt(recordBytes.size());
+        recordBytes.writeTo(out);
+        size += 4 + recordBytes.size();
+        nextSequence = event.getSequence() + 1;
+    }
+
+    synchronized void flush() throws IOException {
+        out.flush();
+        flushedSize = size;
+        flushedNextSequence = nextSequence;
+    }
+
+    // Delivers up to maxEvents flushed events starting at fromSequence; returns the sequence after the last one
+    public long replay(long fromSequence, int maxEvents, Consumer<LibraryEvent> handler) throws IOException {
+        long limit = flushedSize;
+        long end = flushedNextSequence;
+        long position;
+        synchronized (this) {
+            if (firstSequence < 0 || fromSequence >= end) {
+                return fromSequence;
+            }
+            Map.Entry<Long, Long> start = index.floorEntry(Math.max(fromSequence, firstSequence));
+            position = start == null ? 0 : start.getValue();
+        }
+
+        long next = Math.max(fromSequence, firstSequence);
+        int delivered = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(position);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            while (position < limit && delivered < maxEvents) {
+                int length = in.readInt();
+                LibraryEvent event = readEvent(in);
+                position += 4 + length;
+                if (event.getSequence() >= next) {
+                    handler.accept(event);
+                    next = event.getSequence() + 1;
+                    delivered++;
+                }
+            }
+        }
+        return next;
+    }
+
+    public synchronized long getFirstSequence() {
+        return firstSequence;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    // Rebuilds the index and finds where the last complete record ends
+    private void recover() throws IOException {
+        if (!file.toFile().exists()) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            while (size + 4 <= fileSize) {
+                int length = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_LENGTH || size + 4 + length > fileSize) {
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                LibraryEvent event = decode(bytes);
+                if (event == null) {
+                    break; // Damaged record; everything before size is intact
+                }
+                if (firstSequence < 0) {
+                    firstSequence = event.getSequence();
+                }
+                if (event.getSequence() % INDEX_INTERVAL == 0 || index.isEmpty()) {
+                    index.put(event.getSequence(), size);
+                }
+                size += 4 + length;
+                nextSequence = event.getSequence() + 1;
+            }
+        } catch (EOFException e) {
+            // Torn record at the end; everything before size is intact
+        }
+    }
+
+    // The event in one record, or null if the bytes are not a whole valid record
+    private static LibraryEvent decode(byte[] bytes) {
+        ByteArrayInputStream buffer = new ByteArrayInputStream(bytes);
+        try {
+            LibraryEvent event = readEvent(new DataInputStream(buffer));
+            return buffer.available() == 0 ? event : null;
+        } catch (IOException e) {
+            return null; // Too short, a bad type or malformed text
+        }
+    }
+
+    private static LibraryEvent readEvent(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= TYPES.length) {
+            throw new IOException("Unknown event type " + ordinal + " at sequence " + sequence);
+        }
+        EventType type = TYPES[ordinal];
+        long epochDay = in.readLong();
+        int flags = in.readByte();
+        String bookId = (flags & FLAG_BOOK) != 0 ? in.readUTF() : null;
+        String memberId = (flags & FLAG_MEMBER) != 0 ? in.readUTF() : null;
+        return new LibraryEvent(sequence, type, bookId, memberId, epochDay);
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
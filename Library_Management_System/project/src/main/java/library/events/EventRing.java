@@ -0,0 +1,54 @@
+package library.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size, lock-free ring of the most recent events
+ * Producers claim a sequence with one atomic increment and publish by writing
+ * the slot; they never wait for consumers. A slot is reused once the ring
+ * wraps, so consumers that fall a full ring behind are told they were overrun.
+ */
+class EventRing {
+    private final AtomicReferenceArray<LibraryEvent> slots;
+    private final int mask;
+    private final AtomicLong nextSequence;
+    private final long firstSequence;
+
+    EventRing(int capacity, long firstSequence) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring capacity must be a power of two");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.nextSequence = new AtomicLong(firstSequence);
+        this.firstSequence = firstSequence;
+    }
+
+    LibraryEvent publish(EventType type, String bookId, String memberId, long epochDay) {
+        long sequence = nextSequence.getAndIncrement();
+        LibraryEvent event = new LibraryEvent(sequence, type, bookId, memberId, epochDay);
+        slots.set((int) (sequence & mask), event);
+        return event;
+    }
+
+    // The event with this sequence, null if not published yet, or OVERRUN if already overwritten
+    LibraryEvent get(long sequence) {
+        LibraryEvent event = slots.get((int) (sequence & mask));
+        if (event == null || event.getSequence() < sequence) {
+            return null;
+        }
+        return event.getSequence() == sequence ? event : OVERRUN;
+    }
+
+    long getNextSequence() {
+        return nextSequence.get();
+    }
+
+    // Oldest sequence that may still be in the ring; anything older is only in the log
+    long getOldestSequence() {
+        return Math.max(firstSequence, nextSequence.get() - slots.length());
+    }
+
+    static final LibraryEvent OVERRUN = new LibraryEvent(-1, null, null, null, 0);
+}
@@ -0,0 +1,121 @@
+package library.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+/**
+ * Change-data-capture stream of library mutations
+ * LibrarySystem publishes an event for every change into a bounded lock-free
+ * ring; consumers read through their own EventSubscription. With an event
+ * log attached, a background thread appends events to disk in batches so
+ * subscribers can resume from a saved offset or catch up after falling
+ * behind the ring, without the publishing path touching the disk.
+ */
+public class EventStream implements Closeable {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int LOG_BATCH_SIZE = 1024;
+    private static final long LOG_IDLE_PARK_MILLIS = 1;
+
+    private final EventRing ring;
+    private final EventLog log;
+    private final Thread logWriter;
+    private final EventSubscription logSubscription;
+    private volatile boolean closed;
+    private volatile IOException logFailure;
+
+    // In-memory stream without replay beyond the ring
+    public EventStream(int capacity) {
+        this.ring = new EventRing(capacity, 0);
+        this.log = null;
+        this.logWriter = null;
+        this.logSubscription = null;
+    }
+
+    // Stream persisted to an event log, continuing the log's sequence numbers
+    public EventStream(int capacity, Path logFile) throws IOException {
+        this.log = new EventLog(logFile);
+        this.ring = new EventRing(capacity, log.getNextSequence());
+        this.logSubscription = new EventSubscription(ring, null, ring.getNextSequence());
+        this.logWriter = new Thread(this::writeLog, "event-log-writer");
+        this.logWriter.setDaemon(true);
+        this.logWriter.start();
+    }
+
+    public LibraryEvent publish(EventType type, String bookId, String memberId, long epochDay) {
+        return ring.publish(type, bookId, memberId, epochDay);
+    }
+
+    // Subscription starting with the next event published
+    public EventSubscription subscribe() {
+        return new EventSubscription(ring, log, ring.getNextSequence());
+    }
+
+    // Subscription resuming at a saved cursor, replaying from the log if needed
+    public EventSubscription subscribeFrom(long sequence) {
+        return new EventSubscription(ring, log, Math.min(sequence, ring.getNextSequence()));
+    }
+
+    public long getNextSequence() {
+        return ring.getNextSequence();
+    }
+
+    // Events the log writer fell too far behind to save; a larger capacity avoids this
+    public long getUnloggedEvents() {
+        return logSubscription == null ? 0 : logSubscription.getLostEvents();
+    }
+
+    // Set if the background log writer stopped because of an I/O error
+    public IOException getLogFailure() {
+        return logFailure;
+    }
+
+    // Stops the log writer after it has written everything published so far
+    @Override
+    public void close() throws IOException {
+        if (log == null) {
+            return;
+        }
+        closed = true;
+        try {
+            logWriter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+        if (logFailure != null) {
+            throw logFailure;
+        }
+    }
+
+    private void writeLog() {
+        try {
+            while (true) {
+                boolean closing = closed;
+                int written = logSubscription.poll(LOG_BATCH_SIZE, this::append);
+                if (written == 0) {
+                    log.flush();
+                    if (closing) {
+                        return;
+                    }
+                    Thread.sleep(LOG_IDLE_PARK_MILLIS);
+                }
+            }
+        } catch (IOException e) {
+            logFailure = e;
+        } catch (UncheckedIOException e) {
+            logFailure = e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(LibraryEvent event) {
+        try {
+            log.append(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package library.events;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * One consumer's position in the event stream
+ * Each subscription has its own cursor and is meant to be polled by a single
+ * thread. Events that already left the ring are replayed from the event log
+ * when there is one; otherwise they are skipped and counted as lost, so a
+ * slow consumer never holds memory or slows publishers down.
+ * Save getCursor() to resume later with EventStream.subscribeFrom.
+ */
+public class EventSubscription {
+    private final EventRing ring;
+    private final EventLog log;
+    private long cursor;
+    private long lostEvents;
+
+    EventSubscription(EventRing ring, EventLog log, long cursor) {
+        this.ring = ring;
+        this.log = log;
+        this.cursor = cursor;
+    }
+
+    // Hands up to maxEvents events to the handler in order; returns how many were delivered
+    public int poll(int maxEvents, Consumer<LibraryEvent> handler) throws IOException {
+        int delivered = 0;
+        while (delivered < maxEvents) {
+            if (cursor < ring.getOldestSequence()) {
+                delivered += catchUp(maxEvents - delivered, handler);
+                continue;
+            }
+            LibraryEvent event = ring.get(cursor);
+            if (event == null) {
+                break;
+            }
+            if (event == EventRing.OVERRUN) {
+                continue;
+            }
+            handler.accept(event);
+            cursor++;
+            delivered++;
+        }
+        return delivered;
+    }
+
+    // Next sequence this subscription will read
+    public long getCursor() {
+        return cursor;
+    }
+
+    public long getLag() {
+        return Math.max(0, ring.getNextSequence() - cursor);
+    }
+
+    public long getLostEvents() {
+        return lostEvents;
+    }
+
+    // Replays from the log what the ring no longer holds, or skips it if the log cannot help
+    private int catchUp(int maxEvents, Consumer<LibraryEvent> handler) throws IOException {
+        long oldest = ring.getOldestSequence();
+        int[] delivered = new int[1];
+        if (log != null) {
+            int limit = (int) Math.min(maxEvents, oldest - cursor);
+            log.replay(cursor, limit, event -> {
+                // Gaps in the log are events its writer was too slow to save
+                lostEvents += event.getSequence() - cursor;
+                handler.accept(event);
+                cursor = event.getSequence() + 1;
+                delivered[0]++;
+            });
+            if (delivered[0] > 0) {
+                return delivered[0];
+            }
+        }
+        lostEvents += oldest - cursor;
+        cursor = oldest;
+        return 0;
+    }
+}
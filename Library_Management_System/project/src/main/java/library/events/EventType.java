@@ -0,0 +1,20 @@
+package library.events;
+
+/**
+ * Kinds of change published on the event stream
+ */
+public enum EventType {
+    BOOK_ADDED,
+    BOOK_UPDATED,
+    BOOK_ISSUED,
+    BOOK_RETURNED,
+    MEMBER_ADDED,
+    MEMBER_UPDATED,
+    BOOK_RENEWED,
+    HOLD_PLACED,
+    HOLD_CANCELLED,
+    TRANSFER_REQUESTED,
+    TRANSFER_COMPLETED,
+    TRANSFER_CANCELLED,
+    SNAPSHOT_LOADED // Records were replaced by a snapshot; they are not published one by one
+}
@@ -0,0 +1,50 @@
+package library.events;
+
+/**
+ * An immutable record of one change to the library
+ * Events carry ids rather than the records themselves, so consumers read
+ * the current state from LibrarySystem when they need more than the ids.
+ */
+public class LibraryEvent {
+    private final long sequence;
+    private final EventType type;
+    private final String bookId;
+    private final String memberId;
+    private final long epochDay;
+
+    public LibraryEvent(long sequence, EventType type, String bookId, String memberId, long epochDay) {
+        this.sequence = sequence;
+        this.type = type;
+        this.bookId = bookId;
+        this.memberId = memberId;
+        this.epochDay = epochDay;
+    }
+
+    // Getters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public String getBookId() {
+        return bookId;
+    }
+
+    public String getMemberId() {
+        return memberId;
+    }
+
+    // Library day on which the change happened
+    public long getEpochDay() {
+        return epochDay;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LibraryEvent{Seq=%d, Type=%s, Book=%s, Member=%s, Day=%d}",
+                sequence, type, bookId, memberId, epochDay);
+    }
+}
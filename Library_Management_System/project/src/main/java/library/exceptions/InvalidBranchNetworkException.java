@@ -0,0 +1,11 @@
+package library.exceptions;
+
+/**
+ * Exception for a branch network file that cannot be compiled
+ */
+public class InvalidBranchNetworkException extends LibraryException {
+
+    public InvalidBranchNetworkException(String reason) {
+        super("Invalid branch network: " + reason);
+    }
+}
@@ -0,0 +1,11 @@
+package library.exceptions;
+
+/**
+ * Exception for a loan policy file that cannot be compiled
+ */
+public class InvalidPolicyException extends LibraryException {
+
+    public InvalidPolicyException(String reason) {
+        super("Invalid loan policy: " + reason);
+    }
+}
@@ -0,0 +1,11 @@
+package library.exceptions;
+
+/**
+ * Exception for snapshot files that are truncated, corrupted or of an unknown version
+ */
+public class InvalidSnapshotException extends LibraryException {
+
+    public InvalidSnapshotException(String message) {
+        super("Invalid snapshot: " + message);
+    }
+}
@@ -8,4 +8,8 @@ public class MemberNotFoundException extends LibraryException {
     public MemberNotFoundException(String memberId) {
         super("Member not found with ID: " + memberId);
     }
+
+    public MemberNotFoundException(String field, String value) {
+        super("Member not found with " + field + ": " + value);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package library.exceptions;
+
+/**
+ * Exception for a renewal refused by the renewal policy
+ */
+public class RenewalNotAllowedException extends LibraryException {
+
+    public RenewalNotAllowedException(String bookId, String reason) {
+        super("Book " + bookId + " cannot be renewed: " + reason);
+    }
+}
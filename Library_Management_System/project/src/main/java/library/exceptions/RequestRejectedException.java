@@ -0,0 +1,11 @@
+package library.exceptions;
+
+/**
+ * Exception for requests turned away by rate limiting or admission control
+ */
+public class RequestRejectedException extends LibraryException {
+
+    public RequestRejectedException(String clientId, String reason) {
+        super("Request from " + clientId + " rejected: " + reason);
+    }
+}
@@ -0,0 +1,83 @@
+package library.io;
+
+import library.exceptions.LibraryException;
+import library.models.Book;
+import library.models.Member;
+import library.services.LibrarySystem;
+import library.services.RecordCopies;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Entry points for exporting, importing and shipping library snapshots
+ * Wraps SnapshotWriter and SnapshotReader around file channels.
+ */
+public final class LibrarySnapshot {
+    private static final int MAX_STALLED_TRANSFERS = 1000;
+    private static final long STALL_WAIT_NANOS = 1_000_000;
+
+    private LibrarySnapshot() {
+    }
+
+    // Writes copies of the records taken in one lock hold, so the file holds one consistent
+    // state and desk traffic only waits for the copy, not for the write
+    public static void exportTo(LibrarySystem librarySystem, Path file) throws IOException {
+        RecordCopies records = librarySystem.copyRecords();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SnapshotWriter writer = new SnapshotWriter(channel);
+            for (Book book : records.getBooks()) {
+                writer.writeBook(book);
+            }
+            for (Member member : records.getMembers()) {
+                writer.writeMember(member);
+            }
+            writer.finish();
+        }
+    }
+
+    public static void importFrom(Path file, LibrarySystem librarySystem) throws IOException, LibraryException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            new SnapshotReader(channel).readInto(librarySystem);
+        }
+        librarySystem.snapshotLoaded();
+    }
+
+    // Decodes every record before returning, as importFrom does; only the secondary indexes
+    // are left to be built in the background
+    public static void importForFastStart(Path file, LibrarySystem librarySystem) throws IOException, LibraryException {
+        librarySystem.deferIndexes();
+        try {
+            importFrom(file, librarySystem);
+        } finally {
+            librarySystem.buildIndexesInBackground();
+        }
+    }
+
+    // Ships a snapshot file as-is (e.g. to a standby socket) using zero-copy transfer
+    public static long transfer(Path file, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            int stalled = 0;
+            while (position < size) {
+                long sent = channel.transferTo(position, size - position, target);
+                if (sent > 0) {
+                    position += sent;
+                    stalled = 0;
+                } else if (++stalled > MAX_STALLED_TRANSFERS) {
+                    // A full non-blocking target or a file truncated meanwhile would spin forever
+                    throw new IOException("Snapshot transfer stopped at byte " + position + " of " + size);
+                } else {
+                    LockSupport.parkNanos(STALL_WAIT_NANOS);
+                }
+            }
+            return position;
+        }
+    }
+}
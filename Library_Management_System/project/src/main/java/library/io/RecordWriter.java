@@ -0,0 +1,190 @@
+package library.io;
+
+import library.models.Book;
+import library.models.Member;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Writes book and member lines straight into a reusable byte buffer
+ * Produces the same text as Book.toString and Member.toString without
+ * String.format or temporary strings, and hands the output stream large
+ * chunks instead of one write per line. Used for CLI listings and text exports.
+ */
+public class RecordWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] BOOK_ID = ascii("Book{ID='");
+    private static final byte[] TITLE = ascii("', Title='");
+    private static final byte[] AUTHOR = ascii("', Author='");
+    private static final byte[] ISBN = ascii("', ISBN='");
+    private static final byte[] AVAILABLE_TRUE = ascii("', Available=true}");
+    private static final byte[] AVAILABLE_FALSE = ascii("', Available=false");
+    private static final byte[] DUE = ascii(", Due: ");
+    private static final byte[] MEMBER_ID = ascii("Member{ID='");
+    private static final byte[] NAME = ascii("', Name='");
+    private static final byte[] EMAIL = ascii("', Email='");
+    private static final byte[] BOOKS_ISSUED = ascii("', Books Issued=");
+    private static final byte[] NEW_LINE = ascii(System.lineSeparator());
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private final byte[] digits;
+    private int count;
+
+    public RecordWriter(OutputStream out) {
+        this.out = out;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.digits = new byte[20];
+    }
+
+    public RecordWriter writeBook(Book book) throws IOException {
+        write(BOOK_ID);
+        write(book.getBookId());
+        write(TITLE);
+        write(book.getTitle());
+        write(AUTHOR);
+        write(book.getAuthor());
+        write(ISBN);
+        write(book.getIsbn());
+        if (book.isAvailable()) {
+            write(AVAILABLE_TRUE);
+        } else {
+            write(AVAILABLE_FALSE);
+            write(DUE);
+            write(book.getDueDate());
+            write('}');
+        }
+        return this;
+    }
+
+    public RecordWriter writeMember(Member member) throws IOException {
+        write(MEMBER_ID);
+        write(member.getMemberId());
+        write(NAME);
+        write(member.getName());
+        write(EMAIL);
+        write(member.getEmail());
+        write(BOOKS_ISSUED);
+        write(member.getIssuedBooksCount());
+        write('}');
+        return this;
+    }
+
+    public RecordWriter write(String text) throws IOException {
+        if (text == null) {
+            return write("null");
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                write((byte) c);
+            } else {
+                // Rare non-ASCII text takes the slow path
+                write(text.substring(i).getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+        }
+        return this;
+    }
+
+    public RecordWriter write(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            return write(Long.toString(value));
+        }
+        if (value < 0) {
+            write('-');
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        ensure(digits.length - position);
+        System.arraycopy(digits, position, buffer, count, digits.length - position);
+        count += digits.length - position;
+        return this;
+    }
+
+    // Same text as LocalDate.toString for four digit years
+    public RecordWriter write(LocalDate date) throws IOException {
+        if (date == null || date.getYear() < 1000 || date.getYear() > 9999) {
+            return write(String.valueOf(date));
+        }
+        ensure(10);
+        writeDigits(date.getYear(), 4);
+        buffer[count++] = '-';
+        writeDigits(date.getMonthValue(), 2);
+        buffer[count++] = '-';
+        writeDigits(date.getDayOfMonth(), 2);
+        return this;
+    }
+
+    public RecordWriter write(char c) throws IOException {
+        return write((byte) c);
+    }
+
+    public RecordWriter newLine() throws IOException {
+        return write(NEW_LINE);
+    }
+
+    public void flush() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    private RecordWriter write(byte b) throws IOException {
+        ensure(1);
+        buffer[count++] = b;
+        return this;
+    }
+
+    private RecordWriter write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length) {
+            drain();
+            out.write(bytes);
+            return this;
+        }
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    private void writeDigits(int value, int width) {
+        for (int i = count + width - 1; i >= count; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += width;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.length - count < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
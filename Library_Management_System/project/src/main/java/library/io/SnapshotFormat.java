@@ -0,0 +1,70 @@
+package library.io;
+
+/**
+ * Constants shared by the snapshot writer and reader
+ *
+ * Layout (version 4):
+ *   header  : magic (4 bytes) + version (1 byte)
+ *   records : tag byte followed by a book or member record
+ *   trailer : END tag + book count + member count (varints), then CRC32 of
+ *             every preceding byte as a 4-byte big-endian int
+ *
+ * Ids are stored as a dictionary-coded prefix plus a varint number when they
+ * look like "B001", titles and authors go through a shared string dictionary,
+ * and dates are stored as epoch days.
+ *
+ * Version 2 adds the renewal count to issued book records, version 3 the
+ * book category and member tier and version 4 the book's branch (dictionary
+ * strings). Older snapshots are still read, with no renewals and the default
+ * category, tier and branch. Open transfers are not saved, like holds; a
+ * copy in transit is restored at its original branch.
+ */
+final class SnapshotFormat {
+    static final int MAGIC = 0x4C4D5353; // "LMSS"
+    static final byte VERSION = 4;
+    static final byte MIN_READ_VERSION = 1;
+
+    // Record tags
+    static final byte TAG_END = 0;
+    static final byte TAG_BOOK = 1;
+    static final byte TAG_MEMBER = 2;
+
+    // Id encodings
+    static final byte ID_RAW = 0;
+    static final byte ID_NUMBERED = 1;
+    static final int MAX_ID_DIGITS = 18;
+
+    // Dictionary stops growing after this many entries to keep memory bounded
+    static final int MAX_DICTIONARY_ENTRIES = 1 << 16;
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    // Largest string and loan list a record may hold; checked before the reader allocates for them
+    static final int MAX_STRING_BYTES = 16 * BUFFER_SIZE;
+    static final int MAX_ISSUED_BOOKS = BUFFER_SIZE;
+    static final int MIN_ID_BYTES = 2; // Raw encoding of an empty id
+
+    private SnapshotFormat() {
+    }
+
+    static long zigZagEncode(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long zigZagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Returns the start of the trailing digit run that can be stored as a number, or -1
+    static int numericSuffixStart(String id) {
+        int start = id.length();
+        while (start > 0 && id.charAt(start - 1) >= '0' && id.charAt(start - 1) <= '9') {
+            start--;
+        }
+        int digits = id.length() - start;
+        if (digits == 0 || digits > MAX_ID_DIGITS) {
+            return -1;
+        }
+        return start;
+    }
+}
@@ -0,0 +1,277 @@
+package library.io;
+
+import library.exceptions.InvalidSnapshotException;
+import library.exceptions.LibraryException;
+import library.models.Book;
+import library.models.Member;
+import library.services.LibrarySystem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Streams a binary snapshot back into a LibrarySystem
+ * Records are decoded one at a time from a fixed-size buffer, and the
+ * checksum and record counts are verified once the trailer is reached.
+ * Since records are applied as they are read, import into an empty system
+ * and discard it if an InvalidSnapshotException is thrown.
+ *
+ * Lengths are checked against the format's limits and, for file channels,
+ * against the bytes left in the file before anything is allocated for them,
+ * so a corrupt length fails fast instead of exhausting memory.
+ */
+public class SnapshotReader {
+    private static final long MIN_EPOCH_DAY = LocalDate.MIN.toEpochDay();
+    private static final long MAX_EPOCH_DAY = LocalDate.MAX.toEpochDay();
+
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private final CRC32 checksum;
+    private final List<String> dictionary;
+    private final byte version;
+    private long unread; // Bytes left in the channel, or -1 if it cannot tell
+    private int checksumMark;
+    private long booksRead;
+    private long membersRead;
+
+    public SnapshotReader(ReadableByteChannel channel) throws IOException, LibraryException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(SnapshotFormat.BUFFER_SIZE);
+        this.buffer.flip();
+        this.checksum = new CRC32();
+        this.dictionary = new ArrayList<>();
+        this.unread = channel instanceof SeekableByteChannel
+                ? ((SeekableByteChannel) channel).size() - ((SeekableByteChannel) channel).position() : -1;
+
+        ensure(5);
+        if (buffer.getInt() != SnapshotFormat.MAGIC) {
+            throw new InvalidSnapshotException("not a library snapshot");
+        }
+        this.version = buffer.get();
+        if (version < SnapshotFormat.MIN_READ_VERSION || version > SnapshotFormat.VERSION) {
+            throw new InvalidSnapshotException("unsupported version " + version);
+        }
+    }
+
+    public void readInto(LibrarySystem librarySystem) throws IOException, LibraryException {
+        while (true) {
+            ensure(1);
+            byte tag = buffer.get();
+            switch (tag) {
+                case SnapshotFormat.TAG_BOOK:
+                    librarySystem.importBook(readBook());
+                    booksRead++;
+                    break;
+                case SnapshotFormat.TAG_MEMBER:
+                    librarySystem.importMember(readMember());
+                    membersRead++;
+                    break;
+                case SnapshotFormat.TAG_END:
+                    verifyTrailer();
+                    return;
+                default:
+                    throw new InvalidSnapshotException("unknown record tag " + tag);
+            }
+        }
+    }
+
+    public long getBooksRead() {
+        return booksRead;
+    }
+
+    public long getMembersRead() {
+        return membersRead;
+    }
+
+    private Book readBook() throws IOException, LibraryException {
+        String bookId = readId();
+        String title = readDictionaryString();
+        String author = readDictionaryString();
+        String isbn = readString();
+        String category = version >= 3 ? readDictionaryString() : Book.DEFAULT_CATEGORY;
+        String branch = version >= 4 ? readDictionaryString() : Book.DEFAULT_BRANCH;
+
+        ensure(1);
+        boolean available = buffer.get() != 0;
+        Book book;
+        if (available) {
+            book = new Book(bookId, title, author, isbn);
+        } else {
+            String issuedTo = readId();
+            LocalDate issueDate = readDate(SnapshotFormat.zigZagDecode(readVarLong()));
+            LocalDate dueDate = readDate(issueDate.toEpochDay() + SnapshotFormat.zigZagDecode(readVarLong()));
+            int renewals = version >= 2 ? readCount() : 0;
+            book = new Book(bookId, title, author, isbn, issuedTo, issueDate, dueDate, renewals);
+        }
+        book.setCategory(category);
+        book.setBranch(branch);
+        return book;
+    }
+
+    private Member readMember() throws IOException, LibraryException {
+        String memberId = readId();
+        String name = readString();
+        String email = readString();
+        String phone = readString();
+        LocalDate membershipDate = readDate(SnapshotFormat.zigZagDecode(readVarLong()));
+        String tier = version >= 3 ? readDictionaryString() : Member.DEFAULT_TIER;
+
+        int issuedCount = readLength(SnapshotFormat.MAX_ISSUED_BOOKS, SnapshotFormat.MIN_ID_BYTES);
+        List<String> issuedBooks = new ArrayList<>(issuedCount);
+        for (int i = 0; i < issuedCount; i++) {
+            issuedBooks.add(readId());
+        }
+        Member member = new Member(memberId, name, email, phone, membershipDate, issuedBooks);
+        member.setTier(tier);
+        return member;
+    }
+
+    private void verifyTrailer() throws IOException, LibraryException {
+        long expectedBooks = readVarLong();
+        long expectedMembers = readVarLong();
+        checksum.update(consumedSinceMark());
+        checksumMark = buffer.position();
+
+        ensure(4);
+        int expectedChecksum = buffer.getInt();
+        if (expectedChecksum != (int) checksum.getValue()) {
+            throw new InvalidSnapshotException("checksum mismatch");
+        }
+        if (expectedBooks != booksRead || expectedMembers != membersRead) {
+            throw new InvalidSnapshotException("record count mismatch");
+        }
+    }
+
+    // Decoding helpers
+    private String readId() throws IOException, LibraryException {
+        ensure(1);
+        byte encoding = buffer.get();
+        if (encoding == SnapshotFormat.ID_RAW) {
+            return readString();
+        }
+        if (encoding != SnapshotFormat.ID_NUMBERED) {
+            throw new InvalidSnapshotException("unknown id encoding " + encoding);
+        }
+        String prefix = readDictionaryString();
+        long width = readVarLong();
+        long number = readVarLong();
+        if (width < 1 || width > SnapshotFormat.MAX_ID_DIGITS) {
+            throw new InvalidSnapshotException("bad id width " + width);
+        }
+        String digits = Long.toString(number);
+        if (number < 0 || digits.length() > width) {
+            throw new InvalidSnapshotException("bad id number " + number);
+        }
+
+        StringBuilder sb = new StringBuilder(prefix.length() + (int) width);
+        sb.append(prefix);
+        for (int i = digits.length(); i < width; i++) {
+            sb.append('0');
+        }
+        return sb.append(digits).toString();
+    }
+
+    private String readDictionaryString() throws IOException, LibraryException {
+        long code = readVarLong();
+        if (code == 0) {
+            String value = readString();
+            if (dictionary.size() < SnapshotFormat.MAX_DICTIONARY_ENTRIES) {
+                dictionary.add(value);
+            }
+            return value;
+        }
+        if (code < 0 || code > dictionary.size()) {
+            throw new InvalidSnapshotException("dictionary index out of range");
+        }
+        return dictionary.get((int) (code - 1));
+    }
+
+    private String readString() throws IOException, LibraryException {
+        int length = readLength(SnapshotFormat.MAX_STRING_BYTES, 1);
+        ensure(length);
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Epoch days outside LocalDate's range would otherwise escape as DateTimeException
+    private static LocalDate readDate(long epochDay) throws LibraryException {
+        if (epochDay < MIN_EPOCH_DAY || epochDay > MAX_EPOCH_DAY) {
+            throw new InvalidSnapshotException("date out of range");
+        }
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    private int readCount() throws IOException, LibraryException {
+        long count = readVarLong();
+        if (count < 0 || count > Integer.MAX_VALUE) {
+            throw new InvalidSnapshotException("count " + count + " out of range");
+        }
+        return (int) count;
+    }
+
+    // A count of items taking at least bytesPerItem each
+    private int readLength(int max, int bytesPerItem) throws IOException, LibraryException {
+        long length = readVarLong();
+        if (length < 0 || length > max) {
+            throw new InvalidSnapshotException("length " + length + " out of range");
+        }
+        if (unread >= 0 && length * bytesPerItem > buffer.remaining() + unread) {
+            throw new InvalidSnapshotException("length " + length + " runs past the end of the data");
+        }
+        return (int) length;
+    }
+
+    private long readVarLong() throws IOException, LibraryException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            ensure(1);
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new InvalidSnapshotException("malformed varint");
+    }
+
+    // Buffer management
+    private void ensure(int bytes) throws IOException, LibraryException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        checksum.update(consumedSinceMark());
+        if (buffer.capacity() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(bytes);
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < bytes) {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                throw new InvalidSnapshotException("unexpected end of data");
+            }
+            if (unread >= 0) {
+                unread = Math.max(0, unread - read);
+            }
+        }
+        buffer.flip();
+        checksumMark = 0;
+    }
+
+    private ByteBuffer consumedSinceMark() {
+        ByteBuffer consumed = buffer.duplicate();
+        consumed.limit(buffer.position());
+        consumed.position(checksumMark);
+        return consumed;
+    }
+}
@@ -0,0 +1,188 @@
+package library.io;
+
+import library.models.Book;
+import library.models.Member;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Streams books and members into a compact binary snapshot
+ * Records are encoded into a fixed-size buffer that is flushed to the channel
+ * as it fills up, so memory use does not grow with the size of the library.
+ */
+public class SnapshotWriter {
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer;
+    private final CRC32 checksum;
+    private final Map<String, Integer> dictionary;
+    private long booksWritten;
+    private long membersWritten;
+    private boolean finished;
+
+    public SnapshotWriter(WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(SnapshotFormat.BUFFER_SIZE);
+        this.checksum = new CRC32();
+        this.dictionary = new HashMap<>();
+        ensure(5);
+        buffer.putInt(SnapshotFormat.MAGIC);
+        buffer.put(SnapshotFormat.VERSION);
+    }
+
+    public void writeBook(Book book) throws IOException {
+        checkNotFinished();
+        ensure(1);
+        buffer.put(SnapshotFormat.TAG_BOOK);
+        writeId(book.getBookId());
+        writeDictionaryString(book.getTitle());
+        writeDictionaryString(book.getAuthor());
+        writeString(book.getIsbn());
+        writeDictionaryString(book.getCategory());
+        writeDictionaryString(book.getBranch());
+
+        ensure(1);
+        buffer.put((byte) (book.isAvailable() ? 1 : 0));
+        if (!book.isAvailable()) {
+            writeId(book.getIssuedTo());
+            long issueDay = book.getIssueDate().toEpochDay();
+            writeVarLong(SnapshotFormat.zigZagEncode(issueDay));
+            writeVarLong(SnapshotFormat.zigZagEncode(book.getDueDate().toEpochDay() - issueDay));
+            writeVarLong(book.getRenewals());
+        }
+        booksWritten++;
+    }
+
+    public void writeMember(Member member) throws IOException {
+        checkNotFinished();
+        ensure(1);
+        buffer.put(SnapshotFormat.TAG_MEMBER);
+        writeId(member.getMemberId());
+        writeString(member.getName());
+        writeString(member.getEmail());
+        writeString(member.getPhone());
+        writeDate(member.getMembershipDate());
+        writeDictionaryString(member.getTier());
+
+        List<String> issuedBooks = member.getIssuedBooks();
+        if (issuedBooks.size() > SnapshotFormat.MAX_ISSUED_BOOKS) {
+            throw new IOException("Member " + member.getMemberId() + " has too many loans for a snapshot");
+        }
+        writeVarLong(issuedBooks.size());
+        for (String bookId : issuedBooks) {
+            writeId(bookId);
+        }
+        membersWritten++;
+    }
+
+    // Writes the trailer and flushes everything; the channel is left open
+    public void finish() throws IOException {
+        checkNotFinished();
+        ensure(1);
+        buffer.put(SnapshotFormat.TAG_END);
+        writeVarLong(booksWritten);
+        writeVarLong(membersWritten);
+        flush();
+
+        buffer.putInt((int) checksum.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        finished = true;
+    }
+
+    public long getBooksWritten() {
+        return booksWritten;
+    }
+
+    public long getMembersWritten() {
+        return membersWritten;
+    }
+
+    // Encoding helpers
+    private void writeId(String id) throws IOException {
+        int suffixStart = SnapshotFormat.numericSuffixStart(id);
+        if (suffixStart < 0) {
+            ensure(1);
+            buffer.put(SnapshotFormat.ID_RAW);
+            writeString(id);
+            return;
+        }
+        ensure(1);
+        buffer.put(SnapshotFormat.ID_NUMBERED);
+        writeDictionaryString(id.substring(0, suffixStart));
+        writeVarLong(id.length() - suffixStart);
+        writeVarLong(Long.parseLong(id.substring(suffixStart)));
+    }
+
+    private void writeDictionaryString(String value) throws IOException {
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            writeVarLong(index + 1L);
+            return;
+        }
+        writeVarLong(0);
+        writeString(value);
+        if (dictionary.size() < SnapshotFormat.MAX_DICTIONARY_ENTRIES) {
+            dictionary.put(value, dictionary.size());
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > SnapshotFormat.MAX_STRING_BYTES) {
+            throw new IOException("String of " + bytes.length + " bytes is too long for a snapshot");
+        }
+        writeVarLong(bytes.length);
+        ensure(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void writeDate(LocalDate date) throws IOException {
+        writeVarLong(SnapshotFormat.zigZagEncode(date.toEpochDay()));
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    // Buffer management
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        flush();
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(bytes);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        checksum.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void checkNotFinished() {
+        if (finished) {
+            throw new IllegalStateException("Snapshot has already been finished");
+        }
+    }
+}
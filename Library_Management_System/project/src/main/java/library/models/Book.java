@@ -12,10 +12,18 @@ public class Book {
     private String title;
     private String author;
     private String isbn;
+    private String category;
+    private String branch;
     private boolean isAvailable;
     private LocalDate issueDate;
     private LocalDate dueDate;
     private String issuedTo;
+    private long dueEpochDay; // dueDate as an epoch day, for cheap overdue checks
+    private int renewals;
+    private long version;
+    private ChangeListener changeListener;
+    public static final String DEFAULT_CATEGORY = "general";
+    public static final String DEFAULT_BRANCH = "main";
 
     // Constructor
     public Book(String bookId, String title, String author, String isbn) {
@@ -23,10 +31,32 @@ public class Book {
         this.title = title;
         this.author = author;
         this.isbn = isbn;
+        this.category = DEFAULT_CATEGORY;
+        this.branch = DEFAULT_BRANCH;
         this.isAvailable = true;
         this.issueDate = null;
         this.dueDate = null;
         this.issuedTo = null;
+        this.dueEpochDay = Long.MAX_VALUE;
+    }
+
+    // Constructor for restoring a book with its loan state (e.g. from a snapshot)
+    public Book(String bookId, String title, String author, String isbn,
+                String issuedTo, LocalDate issueDate, LocalDate dueDate) {
+        this(bookId, title, author, isbn, issuedTo, issueDate, dueDate, 0);
+    }
+
+    public Book(String bookId, String title, String author, String isbn,
+                String issuedTo, LocalDate issueDate, LocalDate dueDate, int renewals) {
+        this(bookId, title, author, isbn);
+        if (issuedTo != null) {
+            this.isAvailable = false;
+            this.issuedTo = issuedTo;
+            this.issueDate = issueDate;
+            this.dueDate = dueDate;
+            this.dueEpochDay = dueDate != null ? dueDate.toEpochDay() : Long.MAX_VALUE;
+            this.renewals = renewals;
+        }
     }
 
     // Getters
@@ -46,6 +76,16 @@ public class Book {
         return isbn;
     }
 
+    // Category used by loan policy caps, always lower case
+    public String getCategory() {
+        return category;
+    }
+
+    // Branch the copy is shelved at, always lower case
+    public String getBranch() {
+        return branch;
+    }
+
     public boolean isAvailable() {
         return isAvailable;
     }
@@ -62,32 +102,88 @@ public class Book {
         return issuedTo;
     }
 
+    // Due date as an epoch day, Long.MAX_VALUE when not issued
+    public long getDueEpochDay() {
+        return dueEpochDay;
+    }
+
+    // Times the current loan has been renewed
+    public int getRenewals() {
+        return renewals;
+    }
+
+    // A detached copy of the record's current state, with no listener attached
+    public Book copy() {
+        Book copy = new Book(bookId, title, author, isbn, issuedTo, issueDate, dueDate, renewals);
+        copy.category = category;
+        copy.branch = branch;
+        copy.version = version;
+        return copy;
+    }
+
+    // Incremented on every change, lets caches detect stale renderings
+    public long getVersion() {
+        return version;
+    }
+
+    // Runs changes to a catalog field (title, author, ISBN, category or branch)
+    public void setChangeListener(ChangeListener listener) {
+        this.changeListener = listener;
+    }
+
     // Setters with validation
     public void setTitle(String title) {
         if (title != null && !title.trim().isEmpty()) {
-            this.title = title;
+            change(true, () -> this.title = title);
         }
     }
 
     public void setAuthor(String author) {
         if (author != null && !author.trim().isEmpty()) {
-            this.author = author;
+            change(true, () -> this.author = author);
         }
     }
 
     public void setIsbn(String isbn) {
         if (isbn != null && !isbn.trim().isEmpty()) {
-            this.isbn = isbn;
+            change(true, () -> this.isbn = isbn);
+        }
+    }
+
+    public void setCategory(String category) {
+        if (category != null && !category.trim().isEmpty() && !category.trim().equalsIgnoreCase(this.category)) {
+            String value = category.trim().toLowerCase();
+            change(false, () -> this.category = value);
+        }
+    }
+
+    public void setBranch(String branch) {
+        if (branch != null && !branch.trim().isEmpty() && !branch.trim().equalsIgnoreCase(this.branch)) {
+            String value = branch.trim().toLowerCase();
+            change(false, () -> this.branch = value);
         }
     }
 
     // Business methods
-    public void issueBook(String memberId, int issueDays) {
+    public void issueBook(String memberId, int issueDays, LocalDate issueDate) {
         if (isAvailable) {
             this.isAvailable = false;
             this.issuedTo = memberId;
-            this.issueDate = LocalDate.now();
+            this.issueDate = issueDate;
             this.dueDate = issueDate.plusDays(issueDays);
+            this.dueEpochDay = dueDate.toEpochDay();
+            this.renewals = 0;
+            version++;
+        }
+    }
+
+    // Moves the due date to the given day, counting one renewal of the current loan
+    public void renewBook(LocalDate newDueDate) {
+        if (!isAvailable) {
+            this.dueDate = newDueDate;
+            this.dueEpochDay = newDueDate.toEpochDay();
+            this.renewals++;
+            version++;
         }
     }
 
@@ -96,19 +192,35 @@ public class Book {
         this.issuedTo = null;
         this.issueDate = null;
         this.dueDate = null;
+        this.dueEpochDay = Long.MAX_VALUE;
+        this.renewals = 0;
+        version++;
     }
 
-    public boolean isOverdue() {
-        return !isAvailable && dueDate != null && LocalDate.now().isAfter(dueDate);
+    // Overdue state as of the given epoch day
+    public boolean isOverdue(long asOfEpochDay) {
+        return !isAvailable && asOfEpochDay > dueEpochDay;
     }
 
-    public long getDaysOverdue() {
-        if (isOverdue()) {
-            return LocalDate.now().toEpochDay() - dueDate.toEpochDay();
+    public long getDaysOverdue(long asOfEpochDay) {
+        if (isOverdue(asOfEpochDay)) {
+            return asOfEpochDay - dueEpochDay;
         }
         return 0;
     }
 
+    private void change(boolean searchable, Runnable change) {
+        Runnable versioned = () -> {
+            change.run();
+            version++;
+        };
+        if (changeListener != null) {
+            changeListener.changeBook(this, searchable, versioned);
+        } else {
+            versioned.run();
+        }
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -129,23 +241,36 @@ public class Book {
                 !isAvailable ? ", Due: " + dueDate : "");
     }
 
-    public String getDetailedInfo() {
+    public String getDetailedInfo(long asOfEpochDay) {
         StringBuilder sb = new StringBuilder();
         sb.append("Book ID: ").append(bookId).append("\n");
         sb.append("Title: ").append(title).append("\n");
         sb.append("Author: ").append(author).append("\n");
         sb.append("ISBN: ").append(isbn).append("\n");
+        sb.append("Category: ").append(category).append("\n");
+        sb.append("Branch: ").append(branch).append("\n");
         sb.append("Status: ").append(isAvailable ? "Available" : "Issued").append("\n");
         
         if (!isAvailable) {
             sb.append("Issued to: ").append(issuedTo).append("\n");
             sb.append("Issue Date: ").append(issueDate).append("\n");
             sb.append("Due Date: ").append(dueDate).append("\n");
-            if (isOverdue()) {
-                sb.append("OVERDUE by ").append(getDaysOverdue()).append(" days").append("\n");
+            if (renewals > 0) {
+                sb.append("Renewals: ").append(renewals).append("\n");
+            }
+            if (isOverdue(asOfEpochDay)) {
+                sb.append("OVERDUE by ").append(getDaysOverdue(asOfEpochDay)).append(" days").append("\n");
             }
         }
         
         return sb.toString();
     }
+
+    /**
+     * Runs catalog changes, so indexes over books can refile them under the same lock
+     */
+    public interface ChangeListener {
+        // searchable is true if the title, author or ISBN changes
+        void changeBook(Book book, boolean searchable, Runnable change);
+    }
 }
\ No newline at end of file
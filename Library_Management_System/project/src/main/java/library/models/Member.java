@@ -16,16 +16,22 @@ public class Member {
     private String phone;
     private LocalDate membershipDate;
     private List<String> issuedBooks;
-    private static final int MAX_BOOKS_ALLOWED = 5;
+    private String tier;
+    private long version;
+    private ContactListener contactListener;
+    public static final String DEFAULT_TIER = "standard";
 
     // Constructor
-    public Member(String memberId, String name, String email, String phone) {
+    // The membership date comes from the library's clock, or from a snapshot with the loan state
+    public Member(String memberId, String name, String email, String phone,
+                  LocalDate membershipDate, List<String> issuedBooks) {
         this.memberId = memberId;
         this.name = name;
         this.email = email;
         this.phone = phone;
-        this.membershipDate = LocalDate.now();
-        this.issuedBooks = new ArrayList<>();
+        this.membershipDate = membershipDate;
+        this.issuedBooks = new ArrayList<>(issuedBooks);
+        this.tier = DEFAULT_TIER;
     }
 
     // Getters
@@ -57,38 +63,89 @@ public class Member {
         return issuedBooks.size();
     }
 
+    // Id of the index-th issued book, lets callers walk the loans without copying them
+    public String getIssuedBookId(int index) {
+        return issuedBooks.get(index);
+    }
+
+    // Loan policy tier, always lower case
+    public String getTier() {
+        return tier;
+    }
+
+    // A detached copy of the record's current state, with no listener attached
+    public Member copy() {
+        Member copy = new Member(memberId, name, email, phone, membershipDate, issuedBooks);
+        copy.tier = tier;
+        copy.version = version;
+        return copy;
+    }
+
+    // Incremented on every change, lets caches detect stale renderings
+    public long getVersion() {
+        return version;
+    }
+
+    // Applies changes to the name, email or phone
+    public void setContactListener(ContactListener listener) {
+        this.contactListener = listener;
+    }
+
     // Setters with validation
     public void setName(String name) {
         if (name != null && !name.trim().isEmpty()) {
-            this.name = name;
+            changeContact(null, () -> this.name = name);
         }
     }
 
     public void setEmail(String email) {
         if (email != null && email.contains("@")) {
-            this.email = email;
+            changeContact(email, () -> this.email = email);
         }
     }
 
     public void setPhone(String phone) {
         if (phone != null && !phone.trim().isEmpty()) {
-            this.phone = phone;
+            changeContact(null, () -> this.phone = phone);
+        }
+    }
+
+    private void changeContact(String newEmail, Runnable change) {
+        Runnable versioned = () -> {
+            change.run();
+            version++;
+        };
+        if (contactListener != null) {
+            contactListener.changeContact(this, newEmail, versioned);
+        } else {
+            versioned.run();
+        }
+    }
+
+    public void setTier(String tier) {
+        if (tier != null && !tier.trim().isEmpty()) {
+            this.tier = tier.trim().toLowerCase();
+            version++;
         }
     }
 
     // Business methods
-    public boolean canIssueMoreBooks() {
-        return issuedBooks.size() < MAX_BOOKS_ALLOWED;
+    public boolean canIssueMoreBooks(int maxBooksAllowed) {
+        return issuedBooks.size() < maxBooksAllowed;
     }
 
+    // Loan limits are checked by LibrarySystem against the member's tier
     public void addIssuedBook(String bookId) {
-        if (canIssueMoreBooks() && !issuedBooks.contains(bookId)) {
+        if (!issuedBooks.contains(bookId)) {
             issuedBooks.add(bookId);
+            version++;
         }
     }
 
     public void removeIssuedBook(String bookId) {
-        issuedBooks.remove(bookId);
+        if (issuedBooks.remove(bookId)) {
+            version++;
+        }
     }
 
     public boolean hasIssuedBook(String bookId) {
@@ -114,14 +171,15 @@ public class Member {
                 memberId, name, email, issuedBooks.size());
     }
 
-    public String getDetailedInfo() {
+    public String getDetailedInfo(int maxBooksAllowed) {
         StringBuilder sb = new StringBuilder();
         sb.append("Member ID: ").append(memberId).append("\n");
         sb.append("Name: ").append(name).append("\n");
         sb.append("Email: ").append(email).append("\n");
         sb.append("Phone: ").append(phone).append("\n");
         sb.append("Membership Date: ").append(membershipDate).append("\n");
-        sb.append("Books Issued: ").append(issuedBooks.size()).append("/").append(MAX_BOOKS_ALLOWED).append("\n");
+        sb.append("Tier: ").append(tier).append("\n");
+        sb.append("Books Issued: ").append(issuedBooks.size()).append("/").append(maxBooksAllowed).append("\n");
         
         if (!issuedBooks.isEmpty()) {
             sb.append("Issued Book IDs: ").append(String.join(", ", issuedBooks)).append("\n");
@@ -130,7 +188,12 @@ public class Member {
         return sb.toString();
     }
 
-    public static int getMaxBooksAllowed() {
-        return MAX_BOOKS_ALLOWED;
+    /**
+     * Applies contact detail changes, so indexes over members can update around them
+     */
+    public interface ContactListener {
+        // Must run the change; newEmail is null unless the email is changing.
+        // May throw IllegalArgumentException to reject the change without running it.
+        void changeContact(Member member, String newEmail, Runnable change);
     }
 }
\ No newline at end of file
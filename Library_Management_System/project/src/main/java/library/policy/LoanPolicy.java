@@ -0,0 +1,257 @@
+package library.policy;
+
+import library.exceptions.InvalidPolicyException;
+import library.models.Member;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Loan rules for every member tier, compiled into flat tables
+ * Tier and category names map to int indexes once; after that each rule is
+ * an array read, so checking a checkout allocates nothing. Instances are
+ * immutable and replaced as a whole on reload.
+ *
+ * Policy file format (java.util.Properties):
+ *   tiers=standard,student,faculty          tier names, the first is the default
+ *   default-tier=standard                   optional, tier for unknown names
+ *   categories=general,reference,media      optional, book categories that can be capped
+ *   defaults.max-loans=5                    rules every tier starts from
+ *   defaults.loan-days=14
+ *   defaults.max-renewals=2
+ *   defaults.cap.reference=0                optional per-category loan caps
+ *   tier.faculty.max-loans=20               per-tier overrides of any rule above
+ *   tier.student.cap.media=1
+ */
+public final class LoanPolicy {
+    public static final int UNCAPPED = Integer.MAX_VALUE;
+
+    // Rules for tiers the policy file does not override
+    private static final int DEFAULT_MAX_LOANS = 5;
+    private static final int DEFAULT_LOAN_DAYS = 14;
+    private static final int DEFAULT_MAX_RENEWALS = 2;
+
+    private static final String MAX_LOANS = "max-loans";
+    private static final String LOAN_DAYS = "loan-days";
+    private static final String MAX_RENEWALS = "max-renewals";
+    private static final String CAP_PREFIX = "cap.";
+
+    private final String[] tierNames;
+    private final String[] categoryNames;
+    private final Map<String, Integer> tierIndex;
+    private final Map<String, Integer> categoryIndex;
+    private final int defaultTier;
+    private final int[] maxLoans;
+    private final int[] loanDays;
+    private final int[] maxRenewals;
+    private final int[] categoryCaps; // [tier * categories + category]
+
+    private LoanPolicy(String[] tierNames, String[] categoryNames, int defaultTier,
+                       int[] maxLoans, int[] loanDays, int[] maxRenewals, int[] categoryCaps) {
+        this.tierNames = tierNames;
+        this.categoryNames = categoryNames;
+        this.tierIndex = indexOf(tierNames);
+        this.categoryIndex = indexOf(categoryNames);
+        this.defaultTier = defaultTier;
+        this.maxLoans = maxLoans;
+        this.loanDays = loanDays;
+        this.maxRenewals = maxRenewals;
+        this.categoryCaps = categoryCaps;
+    }
+
+    // The built-in policy: a single tier with the default rules and no category caps
+    public static LoanPolicy defaults() {
+        return new LoanPolicy(new String[] {Member.DEFAULT_TIER}, new String[0], 0,
+                new int[] {DEFAULT_MAX_LOANS}, new int[] {DEFAULT_LOAN_DAYS}, new int[] {DEFAULT_MAX_RENEWALS},
+                new int[0]);
+    }
+
+    public static LoanPolicy load(Path file) throws IOException, InvalidPolicyException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return compile(properties);
+    }
+
+    public static LoanPolicy compile(Properties properties) throws InvalidPolicyException {
+        String[] tiers = names(properties.getProperty("tiers"));
+        if (tiers.length == 0) {
+            throw new InvalidPolicyException("no tiers defined");
+        }
+        String[] categories = names(properties.getProperty("categories"));
+        Map<String, Integer> tierIndex = indexOf(tiers);
+        Map<String, Integer> categoryIndex = indexOf(categories);
+        if (tierIndex.size() != tiers.length || categoryIndex.size() != categories.length) {
+            throw new InvalidPolicyException("duplicate tier or category name");
+        }
+
+        String defaultTierName = properties.getProperty("default-tier", tiers[0]).trim().toLowerCase();
+        Integer defaultTier = tierIndex.get(defaultTierName);
+        if (defaultTier == null) {
+            throw new InvalidPolicyException("default tier " + defaultTierName + " is not listed in tiers");
+        }
+
+        int[] maxLoans = new int[tiers.length];
+        int[] loanDays = new int[tiers.length];
+        int[] maxRenewals = new int[tiers.length];
+        int[] categoryCaps = new int[tiers.length * categories.length];
+        Arrays.fill(maxLoans, DEFAULT_MAX_LOANS);
+        Arrays.fill(loanDays, DEFAULT_LOAN_DAYS);
+        Arrays.fill(maxRenewals, DEFAULT_MAX_RENEWALS);
+        Arrays.fill(categoryCaps, UNCAPPED);
+
+        // Defaults first so per-tier keys always win
+        List<String> keys = new ArrayList<>(properties.stringPropertyNames());
+        Collections.sort(keys);
+        for (String key : keys) {
+            if (key.startsWith("defaults.")) {
+                for (int tier = 0; tier < tiers.length; tier++) {
+                    applyRule(key, key.substring("defaults.".length()), properties.getProperty(key), tier,
+                            categoryIndex, maxLoans, loanDays, maxRenewals, categoryCaps);
+                }
+            } else if (!key.startsWith("tier.") && !key.equals("tiers")
+                    && !key.equals("categories") && !key.equals("default-tier")) {
+                throw new InvalidPolicyException("unknown key " + key);
+            }
+        }
+        for (String key : keys) {
+            if (key.startsWith("tier.")) {
+                String rest = key.substring("tier.".length());
+                int dot = rest.indexOf('.');
+                Integer tier = dot < 0 ? null : tierIndex.get(rest.substring(0, dot).toLowerCase());
+                if (tier == null) {
+                    throw new InvalidPolicyException("unknown tier in key " + key);
+                }
+                applyRule(key, rest.substring(dot + 1), properties.getProperty(key), tier,
+                        categoryIndex, maxLoans, loanDays, maxRenewals, categoryCaps);
+            }
+        }
+        return new LoanPolicy(tiers, categories, defaultTier, maxLoans, loanDays, maxRenewals, categoryCaps);
+    }
+
+    private static void applyRule(String key, String rule, String value, int tier, Map<String, Integer> categoryIndex,
+                                  int[] maxLoans, int[] loanDays, int[] maxRenewals, int[] categoryCaps)
+            throws InvalidPolicyException {
+        int number = parseCount(key, value);
+        if (rule.equals(MAX_LOANS)) {
+            maxLoans[tier] = number;
+        } else if (rule.equals(LOAN_DAYS)) {
+            if (number == 0) {
+                throw new InvalidPolicyException(key + " must be at least 1");
+            }
+            loanDays[tier] = number;
+        } else if (rule.equals(MAX_RENEWALS)) {
+            maxRenewals[tier] = number;
+        } else if (rule.startsWith(CAP_PREFIX)) {
+            Integer category = categoryIndex.get(rule.substring(CAP_PREFIX.length()).toLowerCase());
+            if (category == null) {
+                throw new InvalidPolicyException("unknown category in key " + key);
+            }
+            categoryCaps[tier * categoryIndex.size() + category] = number;
+        } else {
+            throw new InvalidPolicyException("unknown rule in key " + key);
+        }
+    }
+
+    private static int parseCount(String key, String value) throws InvalidPolicyException {
+        try {
+            int number = Integer.parseInt(value.trim());
+            if (number < 0) {
+                throw new InvalidPolicyException(key + " must not be negative");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new InvalidPolicyException(key + " is not a number: " + value);
+        }
+    }
+
+    private static String[] names(String list) {
+        if (list == null || list.trim().isEmpty()) {
+            return new String[0];
+        }
+        String[] names = list.split(",");
+        for (int i = 0; i < names.length; i++) {
+            names[i] = names[i].trim().toLowerCase();
+        }
+        return names;
+    }
+
+    private static Map<String, Integer> indexOf(String[] names) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            index.put(names[i], i);
+        }
+        return index;
+    }
+
+    // Lookups; tier and category names are expected in lower case, as Member and Book store them
+    public int tierOf(String tier) {
+        Integer index = tierIndex.get(tier);
+        return index != null ? index : defaultTier;
+    }
+
+    public boolean hasTier(String tier) {
+        return tierIndex.containsKey(tier);
+    }
+
+    // Index of the category, or -1 if the policy does not cap it
+    public int categoryOf(String category) {
+        Integer index = categoryIndex.get(category);
+        return index != null ? index : -1;
+    }
+
+    public int getMaxLoans(int tier) {
+        return maxLoans[tier];
+    }
+
+    public int getLoanDays(int tier) {
+        return loanDays[tier];
+    }
+
+    public int getMaxRenewals(int tier) {
+        return maxRenewals[tier];
+    }
+
+    // Loans the tier may hold in the category, UNCAPPED if there is no cap
+    public int getCategoryCap(int tier, int category) {
+        return category < 0 ? UNCAPPED : categoryCaps[tier * categoryNames.length + category];
+    }
+
+    public String getTierName(int tier) {
+        return tierNames[tier];
+    }
+
+    public List<String> getTierNames() {
+        return Collections.unmodifiableList(Arrays.asList(tierNames));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int tier = 0; tier < tierNames.length; tier++) {
+            sb.append(tierNames[tier]).append(tier == defaultTier ? " (default)" : "")
+                    .append(": ").append(maxLoans[tier]).append(" books, ")
+                    .append(loanDays[tier]).append(" days, ")
+                    .append(maxRenewals[tier]).append(" renewals");
+            for (int category = 0; category < categoryNames.length; category++) {
+                int cap = getCategoryCap(tier, category);
+                if (cap != UNCAPPED) {
+                    sb.append(", ").append(categoryNames[category]).append(" <= ").append(cap);
+                }
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package library.policy;
+
+import library.exceptions.InvalidPolicyException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the loan policy in force and reloads it from its file
+ * A new policy is compiled completely before it is published with a single
+ * volatile write, so checkouts never wait for a reload and never see a mix
+ * of old and new rules. A file that fails to compile leaves the current
+ * policy in place.
+ */
+public class LoanPolicyStore {
+    public static final long DEFAULT_WATCH_SECONDS = 5;
+
+    private volatile LoanPolicy current;
+    private Path source;
+    private long sourceModified;
+    private ScheduledExecutorService watcher;
+
+    public LoanPolicyStore() {
+        this.current = LoanPolicy.defaults();
+    }
+
+    public LoanPolicy current() {
+        return current;
+    }
+
+    public synchronized void load(Path file) throws IOException, InvalidPolicyException {
+        long modified = Files.getLastModifiedTime(file).toMillis();
+        current = LoanPolicy.load(file);
+        source = file;
+        sourceModified = modified;
+    }
+
+    // Reloads the last loaded file if it changed since; returns true if a new policy was installed
+    public synchronized boolean reloadIfChanged() throws IOException, InvalidPolicyException {
+        if (source == null) {
+            return false;
+        }
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        if (modified == sourceModified) {
+            return false;
+        }
+        sourceModified = modified; // A broken file is reported once, not on every check
+        current = LoanPolicy.load(source);
+        return true;
+    }
+
+    // Checks the policy file for changes at a fixed interval
+    public ScheduledFuture<?> watch(ScheduledExecutorService scheduler, long interval, TimeUnit unit) {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reloadIfChanged();
+            } catch (IOException | InvalidPolicyException e) {
+                System.err.println("Keeping current loan policy: " + e.getMessage());
+            }
+        }, interval, interval, unit);
+    }
+
+    // Watches the policy file on a daemon thread of its own until stopWatching; repeated calls keep the first watch
+    public synchronized void startWatching(long interval, TimeUnit unit) {
+        if (watcher != null) {
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "loan-policy-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watch(watcher, interval, unit);
+    }
+
+    public synchronized void stopWatching() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    public synchronized boolean isWatching() {
+        return watcher != null;
+    }
+
+    public synchronized Path getSource() {
+        return source;
+    }
+}
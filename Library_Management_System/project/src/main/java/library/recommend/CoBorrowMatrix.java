@@ -0,0 +1,87 @@
+package library.recommend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sparse item-item matrix of how often two titles were borrowed by the same member
+ * Each row is pruned back to its strongest half once it outgrows maxRowSize,
+ * so memory stays proportional to the number of titles, not to their pairs.
+ */
+class CoBorrowMatrix {
+    private final int maxRowSize;
+    private final List<IntIntMap> rows;
+
+    CoBorrowMatrix(int maxRowSize) {
+        this.maxRowSize = maxRowSize;
+        this.rows = new ArrayList<>();
+    }
+
+    void increment(int item, int other, int delta) {
+        while (rows.size() <= item) {
+            rows.add(null);
+        }
+        IntIntMap row = rows.get(item);
+        if (row == null) {
+            row = new IntIntMap(8);
+            rows.set(item, row);
+        }
+        row.add(other, delta);
+        if (row.size() > maxRowSize) {
+            rows.set(item, strongest(row, maxRowSize / 2));
+        }
+    }
+
+    // Up to limit co-borrowed items, strongest first (ties broken by lower item id)
+    int[] top(int item, int limit) {
+        IntIntMap row = item < rows.size() ? rows.get(item) : null;
+        if (row == null) {
+            return new int[0];
+        }
+        long[] ranked = rank(row);
+        int count = Math.min(limit, ranked.length);
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = Integer.MAX_VALUE - (int) ranked[ranked.length - 1 - i];
+        }
+        return result;
+    }
+
+    void mergeFrom(CoBorrowMatrix other) {
+        for (int item = 0; item < other.rows.size(); item++) {
+            IntIntMap row = other.rows.get(item);
+            if (row == null) {
+                continue;
+            }
+            int[] keys = new int[row.size()];
+            int[] values = new int[row.size()];
+            row.copyTo(keys, values);
+            for (int i = 0; i < keys.length; i++) {
+                increment(item, keys[i], values[i]);
+            }
+        }
+    }
+
+    private static IntIntMap strongest(IntIntMap row, int keep) {
+        long[] ranked = rank(row);
+        IntIntMap pruned = new IntIntMap(keep);
+        for (int i = ranked.length - 1; i >= ranked.length - keep; i--) {
+            pruned.add(Integer.MAX_VALUE - (int) ranked[i], (int) (ranked[i] >>> 32));
+        }
+        return pruned;
+    }
+
+    // Entries packed as count in the high half and (MAX - item) in the low half, sorted ascending
+    private static long[] rank(IntIntMap row) {
+        int[] keys = new int[row.size()];
+        int[] values = new int[row.size()];
+        row.copyTo(keys, values);
+        long[] ranked = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            ranked[i] = ((long) values[i] << 32) | (Integer.MAX_VALUE - keys[i]);
+        }
+        Arrays.sort(ranked);
+        return ranked;
+    }
+}
@@ -0,0 +1,331 @@
+package library.recommend;
+
+import library.events.EventLog;
+import library.events.EventSubscription;
+import library.events.EventType;
+import library.events.LibraryEvent;
+import library.exceptions.BookNotFoundException;
+import library.models.Book;
+import library.services.LibrarySystem;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * "Members who borrowed this also borrowed" recommendations
+ * Titles (title + author, so all copies count together) get int ids, and
+ * each loan adds one to the pair counts between the new title and the
+ * titles in the member's recent history window. The engine starts from the
+ * loans open when it is created, so a library loaded from a snapshot has
+ * recommendations at once; later loans arrive incrementally from the
+ * library's event stream, and a full rebuild replays the event log across
+ * several threads. Books are looked up a batch of events at a time, in one
+ * library lock hold per batch.
+ *
+ * Memory is bounded by the history window per member and the pruned row
+ * size per title.
+ */
+public class RecommendationEngine {
+    private static final int HISTORY_WINDOW = 8;
+    private static final int MAX_ROW_SIZE = 256;
+    private static final int POLL_BATCH = 4096;
+    private static final int REBUILD_CHUNK = 1024;
+    private static final int REBUILD_QUEUE = 8;
+    private static final int NO_ITEM = -1;
+
+    private final LibrarySystem librarySystem;
+    private final Map<String, Integer> itemIds;
+    private final List<String> itemBooks;
+    private EventSubscription subscription;
+    private Map<String, int[]> histories;
+    private CoBorrowMatrix matrix;
+
+    public RecommendationEngine(LibrarySystem librarySystem) {
+        this.librarySystem = librarySystem;
+        this.itemIds = new HashMap<>();
+        this.itemBooks = new ArrayList<>();
+        this.histories = new HashMap<>();
+        this.matrix = new CoBorrowMatrix(MAX_ROW_SIZE);
+        seedFromLoans();
+    }
+
+    // Counts the loans open now; the subscription starts right after them, so none is counted twice
+    private void seedFromLoans() {
+        List<String> memberIds = new ArrayList<>();
+        List<String> bookIds = new ArrayList<>();
+        subscription = librarySystem.subscribeAfterLoans((memberId, loans) -> {
+            for (String bookId : loans) {
+                memberIds.add(memberId);
+                bookIds.add(bookId);
+            }
+        });
+        int[] items = itemsFor(bookIds);
+        for (int i = 0; i < items.length; i++) {
+            if (items[i] != NO_ITEM) {
+                recordLoan(histories, matrix, memberIds.get(i), items[i]);
+            }
+        }
+    }
+
+    // Applies loans published since the last update; returns how many events were read
+    public synchronized int update() throws IOException {
+        int total = 0;
+        int read;
+        do {
+            List<LibraryEvent> loans = new ArrayList<>();
+            read = subscription.poll(POLL_BATCH, event -> addLoan(loans, event));
+            total += read;
+            int[] items = itemsFor(bookIdsOf(loans));
+            for (int i = 0; i < items.length; i++) {
+                if (items[i] != NO_ITEM) {
+                    recordLoan(histories, matrix, loans.get(i).getMemberId(), items[i]);
+                }
+            }
+        } while (read == POLL_BATCH);
+        return total;
+    }
+
+    public synchronized List<Book> recommend(String bookId, int limit) throws BookNotFoundException {
+        Integer item = itemIds.get(itemKey(librarySystem.getBook(bookId)));
+        List<Book> result = new ArrayList<>();
+        if (item == null) {
+            return result;
+        }
+        for (int other : matrix.top(item, limit)) {
+            result.add(librarySystem.getBook(itemBooks.get(other)));
+        }
+        return result;
+    }
+
+    public synchronized int getTrackedTitles() {
+        return itemIds.size();
+    }
+
+    /**
+     * Rebuilds the matrix from every loan in the event log
+     * The log is read once; loans are routed to worker threads by member so
+     * each worker owns its members' histories, and the workers' matrices are
+     * merged at the end. Queues between reader and workers are bounded.
+     * Live updates then continue from the end of the log. If the replay fails
+     * or is interrupted the workers are stopped and the old matrix is kept.
+     */
+    public synchronized void rebuild(EventLog log, int threads) throws IOException, InterruptedException {
+        List<BlockingQueue<LoanChunk>> queues = new ArrayList<>();
+        List<RebuildWorker> workers = new ArrayList<>();
+        List<Thread> workerThreads = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            BlockingQueue<LoanChunk> queue = new ArrayBlockingQueue<>(REBUILD_QUEUE);
+            RebuildWorker worker = new RebuildWorker(queue);
+            Thread thread = new Thread(worker, "recommendation-rebuild-" + i);
+            thread.setDaemon(true);
+            queues.add(queue);
+            workers.add(worker);
+            workerThreads.add(thread);
+            thread.start();
+        }
+
+        long next = 0;
+        boolean ended = false;
+        try {
+            next = replayInto(log, queues);
+            for (BlockingQueue<LoanChunk> queue : queues) {
+                queue.put(LoanChunk.END);
+            }
+            ended = true;
+        } finally {
+            // Workers block on their queues until told to stop, whichever way the replay ended
+            if (!ended) {
+                for (Thread thread : workerThreads) {
+                    thread.interrupt();
+                }
+            }
+            joinAll(workerThreads);
+        }
+
+        CoBorrowMatrix merged = new CoBorrowMatrix(MAX_ROW_SIZE);
+        Map<String, int[]> mergedHistories = new HashMap<>();
+        for (RebuildWorker worker : workers) {
+            if (worker.failure != null) {
+                throw new IllegalStateException("Recommendation rebuild failed", worker.failure);
+            }
+            merged.mergeFrom(worker.matrix);
+            mergedHistories.putAll(worker.histories);
+        }
+        matrix = merged;
+        histories = mergedHistories;
+        subscription = librarySystem.getEvents().subscribeFrom(next);
+    }
+
+    // Routes every loan in the log to its member's worker; returns the log position after the last event
+    private long replayInto(EventLog log, List<BlockingQueue<LoanChunk>> queues)
+            throws IOException, InterruptedException {
+        int threads = queues.size();
+        LoanChunk[] pending = new LoanChunk[threads];
+        for (int i = 0; i < threads; i++) {
+            pending[i] = new LoanChunk();
+        }
+        long next = 0;
+        while (true) {
+            List<LibraryEvent> loans = new ArrayList<>();
+            long after = log.replay(next, POLL_BATCH, event -> addLoan(loans, event));
+            int[] items = itemsFor(bookIdsOf(loans));
+            for (int i = 0; i < items.length; i++) {
+                if (items[i] == NO_ITEM) {
+                    continue;
+                }
+                String memberId = loans.get(i).getMemberId();
+                int worker = Math.floorMod(memberId.hashCode(), threads);
+                LoanChunk chunk = pending[worker];
+                chunk.add(memberId, items[i]);
+                if (chunk.size == REBUILD_CHUNK) {
+                    queues.get(worker).put(chunk);
+                    pending[worker] = new LoanChunk();
+                }
+            }
+            if (after == next) {
+                break;
+            }
+            next = after;
+        }
+        for (int i = 0; i < threads; i++) {
+            queues.get(i).put(pending[i]);
+        }
+        return next;
+    }
+
+    // Waits for every worker to finish, even if this thread is interrupted meanwhile
+    private static void joinAll(List<Thread> threads) {
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void addLoan(List<LibraryEvent> loans, LibraryEvent event) {
+        if (event.getType() == EventType.BOOK_ISSUED) {
+            loans.add(event);
+        }
+    }
+
+    private static List<String> bookIdsOf(List<LibraryEvent> loans) {
+        List<String> bookIds = new ArrayList<>(loans.size());
+        for (LibraryEvent loan : loans) {
+            bookIds.add(loan.getBookId());
+        }
+        return bookIds;
+    }
+
+    // Title ids for the books, looked up in one lock hold; NO_ITEM for books no longer in the catalog
+    private int[] itemsFor(List<String> bookIds) {
+        Map<String, Book> books = librarySystem.getBooks(bookIds);
+        int[] items = new int[bookIds.size()];
+        for (int i = 0; i < items.length; i++) {
+            Book book = books.get(bookIds.get(i));
+            items[i] = book == null ? NO_ITEM : itemFor(book);
+        }
+        return items;
+    }
+
+    private int itemFor(Book book) {
+        String key = itemKey(book);
+        Integer item = itemIds.get(key);
+        if (item == null) {
+            item = itemBooks.size();
+            itemIds.put(key, item);
+            itemBooks.add(book.getBookId());
+        }
+        return item;
+    }
+
+    // History layout: [loans seen, item, item, ...] used as a ring of HISTORY_WINDOW items
+    private static void recordLoan(Map<String, int[]> histories, CoBorrowMatrix matrix, String memberId, int item) {
+        int[] history = histories.computeIfAbsent(memberId, key -> new int[HISTORY_WINDOW + 1]);
+        int held = Math.min(history[0], HISTORY_WINDOW);
+        for (int i = 1; i <= held; i++) {
+            if (history[i] == item) {
+                return; // Borrowing the same title again adds nothing new
+            }
+        }
+        for (int i = 1; i <= held; i++) {
+            matrix.increment(item, history[i], 1);
+            matrix.increment(history[i], item, 1);
+        }
+        history[1 + history[0] % HISTORY_WINDOW] = item;
+        history[0]++;
+    }
+
+    private static String itemKey(Book book) {
+        return book.getTitle().toLowerCase() + '\u0000' + book.getAuthor().toLowerCase();
+    }
+
+    /**
+     * A batch of (member, title) loans routed to one rebuild worker
+     */
+    private static class LoanChunk {
+        static final LoanChunk END = new LoanChunk();
+
+        final String[] members = new String[REBUILD_CHUNK];
+        final int[] items = new int[REBUILD_CHUNK];
+        int size;
+
+        void add(String memberId, int item) {
+            members[size] = memberId;
+            items[size] = item;
+            size++;
+        }
+    }
+
+    /**
+     * Builds a partial matrix from the loans of the members routed to it
+     */
+    private static class RebuildWorker implements Runnable {
+        private final BlockingQueue<LoanChunk> queue;
+        private final Map<String, int[]> histories;
+        private final CoBorrowMatrix matrix;
+        private volatile RuntimeException failure;
+
+        RebuildWorker(BlockingQueue<LoanChunk> queue) {
+            this.queue = queue;
+            this.histories = new HashMap<>();
+            this.matrix = new CoBorrowMatrix(MAX_ROW_SIZE);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    LoanChunk chunk = queue.take();
+                    if (chunk == LoanChunk.END) {
+                        return;
+                    }
+                    if (failure != null) {
+                        continue; // Keep draining so the reader never blocks on a full queue
+                    }
+                    try {
+                        for (int i = 0; i < chunk.size; i++) {
+                            recordLoan(histories, matrix, chunk.members[i], chunk.items[i]);
+                        }
+                    } catch (RuntimeException e) {
+                        failure = e;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package library.services;
+
+import library.admission.ConcurrencyLimiter;
+import library.admission.RateLimiter;
+import library.exceptions.LibraryException;
+import library.exceptions.RequestRejectedException;
+import library.models.Book;
+import library.models.Member;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Front door to a LibrarySystem shared by many clients (e.g. kiosks)
+ * Every call names the client making it. Cheap id lookups and issue/return
+ * and expensive catalog scans each have their own per-client token bucket and
+ * their own global concurrency limit, so a client looping on searches runs
+ * out of scan budget without touching anyone's checkouts.
+ */
+public class AdmissionControlledLibrary {
+    // Default budgets, well above what a busy front end sends (a LoadSimulator thread on one
+    // core: about 100 lookups and 15 scans a second) so only a runaway client is refused
+    private static final double LOOKUP_RATE_PER_CLIENT = 2_000;
+    private static final int LOOKUP_BURST = 4_000;
+    private static final double SCAN_RATE_PER_CLIENT = 50;
+    private static final int SCAN_BURST = 100;
+    private static final int IDLE_SWEEP_INTERVAL = 1 << 16;
+
+    private final LibrarySystem librarySystem;
+    private final RateLimiter lookupRate;
+    private final RateLimiter scanRate;
+    private final ConcurrencyLimiter lookupConcurrency;
+    private final ConcurrencyLimiter scanConcurrency;
+    private final ThreadLocal<int[]> untilSweep; // per-thread countdown, so requests share no counter
+    private final LongAdder rateLimited;
+    private final LongAdder overloaded;
+
+    public AdmissionControlledLibrary(LibrarySystem librarySystem) {
+        this(librarySystem,
+                new RateLimiter(LOOKUP_RATE_PER_CLIENT, LOOKUP_BURST),
+                new RateLimiter(SCAN_RATE_PER_CLIENT, SCAN_BURST),
+                new ConcurrencyLimiter(64, 8, 512, TimeUnit.MILLISECONDS.toNanos(5), TimeUnit.MILLISECONDS.toNanos(20)),
+                new ConcurrencyLimiter(4, 1, 32, TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(200)));
+    }
+
+    public AdmissionControlledLibrary(LibrarySystem librarySystem, RateLimiter lookupRate, RateLimiter scanRate,
+                                      ConcurrencyLimiter lookupConcurrency, ConcurrencyLimiter scanConcurrency) {
+        this.librarySystem = librarySystem;
+        this.lookupRate = lookupRate;
+        this.scanRate = scanRate;
+        this.lookupConcurrency = lookupConcurrency;
+        this.scanConcurrency = scanConcurrency;
+        this.untilSweep = ThreadLocal.withInitial(() -> new int[] {IDLE_SWEEP_INTERVAL});
+        this.rateLimited = new LongAdder();
+        this.overloaded = new LongAdder();
+    }
+
+    // Cheap operations
+    public Book getBook(String clientId, String bookId) throws LibraryException {
+        return lookup(clientId, () -> librarySystem.getBook(bookId));
+    }
+
+    public Member getMember(String clientId, String memberId) throws LibraryException {
+        return lookup(clientId, () -> librarySystem.getMember(memberId));
+    }
+
+    public void issueBook(String clientId, String bookId, String memberId) throws LibraryException {
+        lookup(clientId, () -> {
+            librarySystem.issueBook(bookId, memberId);
+            return null;
+        });
+    }
+
+    public void returnBook(String clientId, String bookId, String memberId) throws LibraryException {
+        lookup(clientId, () -> {
+            librarySystem.returnBook(bookId, memberId);
+            return null;
+        });
+    }
+
+    // Expensive operations
+    public List<Book> searchBooks(String clientId, String query) throws LibraryException {
+        return scan(clientId, () -> librarySystem.searchBooks(query));
+    }
+
+    public List<Book> searchBooksByTitle(String clientId, String title) throws LibraryException {
+        return scan(clientId, () -> librarySystem.searchBooksByTitle(title));
+    }
+
+    public List<Book> searchBooksByAuthor(String clientId, String author) throws LibraryException {
+        return scan(clientId, () -> librarySystem.searchBooksByAuthor(author));
+    }
+
+    public List<Book> searchBooksByIsbn(String clientId, String isbn) throws LibraryException {
+        return scan(clientId, () -> librarySystem.searchBooksByIsbn(isbn));
+    }
+
+    public List<Member> searchMembers(String clientId, String query) throws LibraryException {
+        return scan(clientId, () -> librarySystem.searchMembers(query));
+    }
+
+    public List<Book> getAvailableBooks(String clientId) throws LibraryException {
+        return scan(clientId, librarySystem::getAvailableBooks);
+    }
+
+    public List<Book> getOverdueBooks(String clientId) throws LibraryException {
+        return scan(clientId, librarySystem::getOverdueBooks);
+    }
+
+    // Statistics
+    public long getRateLimitedCount() {
+        return rateLimited.sum();
+    }
+
+    public long getOverloadedCount() {
+        return overloaded.sum();
+    }
+
+    public ConcurrencyLimiter getLookupConcurrency() {
+        return lookupConcurrency;
+    }
+
+    public ConcurrencyLimiter getScanConcurrency() {
+        return scanConcurrency;
+    }
+
+    private <T> T lookup(String clientId, LibraryCall<T> call) throws LibraryException {
+        return admit(clientId, lookupRate, lookupConcurrency, call);
+    }
+
+    private <T> T scan(String clientId, LibraryCall<T> call) throws LibraryException {
+        return admit(clientId, scanRate, scanConcurrency, call);
+    }
+
+    private <T> T admit(String clientId, RateLimiter rate, ConcurrencyLimiter concurrency,
+                        LibraryCall<T> call) throws LibraryException {
+        int[] countdown = untilSweep.get();
+        if (--countdown[0] == 0) {
+            countdown[0] = IDLE_SWEEP_INTERVAL;
+            lookupRate.removeIdleClients();
+            scanRate.removeIdleClients();
+        }
+        if (!rate.tryAcquire(clientId)) {
+            rateLimited.increment();
+            throw new RequestRejectedException(clientId, "rate limit exceeded");
+        }
+        if (!concurrency.tryAcquire()) {
+            overloaded.increment();
+            throw new RequestRejectedException(clientId, "library is busy, try again shortly");
+        }
+        long start = System.nanoTime();
+        try {
+            return call.call();
+        } finally {
+            concurrency.release(System.nanoTime() - start);
+        }
+    }
+
+    private interface LibraryCall<T> {
+        T call() throws LibraryException;
+    }
+}
@@ -0,0 +1,189 @@
+package library.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nightly job renewing every loan that falls due tomorrow
+ * Candidates come from the library's due-date index, so only that day's
+ * loans are read. They are renewed in batches, one after another on the
+ * calling thread; each batch takes the library lock once, so desk traffic
+ * runs between batches instead of waiting for the whole job. Loans the
+ * renewal policy refuses (renewal limit, holds) are left as they are.
+ */
+public class AutoRenewJob implements Runnable {
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final LibrarySystem librarySystem;
+    private final int batchSize;
+    private volatile Result lastResult;
+
+    public AutoRenewJob(LibrarySystem librarySystem) {
+        this(librarySystem, DEFAULT_BATCH_SIZE);
+    }
+
+    public AutoRenewJob(LibrarySystem librarySystem, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.librarySystem = librarySystem;
+        this.batchSize = batchSize;
+    }
+
+    // Renews the loans due tomorrow, for use with a scheduler
+    @Override
+    public void run() {
+        try {
+            renewDueOn(librarySystem.getClock().todayDate().plusDays(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Keep a scheduled job alive for the next night
+            System.err.println("Auto-renewal failed: " + e);
+        }
+    }
+
+    // Runs the job every day at the given local time of the library's clock
+    public DailySchedule scheduleDaily(ScheduledExecutorService scheduler, LocalTime at) {
+        DailySchedule schedule = new DailySchedule(scheduler, at);
+        schedule.scheduleAfter(null);
+        return schedule;
+    }
+
+    // Batches already renewed stay renewed if the thread is interrupted between batches
+    public Result renewDueOn(LocalDate dueDate) throws InterruptedException {
+        long start = System.nanoTime();
+        List<String> candidates = librarySystem.getBookIdsDueBetween(dueDate, dueDate);
+        int renewed = 0;
+        int batches = 0;
+        for (int from = 0; from < candidates.size(); from += batchSize) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException("Auto-renewal stopped after " + batches + " batch(es)");
+            }
+            List<String> batch = candidates.subList(from, Math.min(from + batchSize, candidates.size()));
+            renewed += librarySystem.renewBooksDueOn(batch, dueDate);
+            batches++;
+        }
+        Result result = new Result(dueDate, candidates.size(), renewed, batches, System.nanoTime() - start);
+        lastResult = result;
+        return result;
+    }
+
+    // Outcome of the most recent run, or null if the job has not run yet
+    public Result getLastResult() {
+        return lastResult;
+    }
+
+    /**
+     * The job's daily runs, each scheduled when the previous one ends
+     * A fixed 24 hour period would drift by an hour at every daylight saving
+     * change, so every run is planned from the next calendar day at the local
+     * time instead. A time skipped by a change runs just after it.
+     */
+    public final class DailySchedule {
+        private final ScheduledExecutorService scheduler;
+        private final LocalTime at;
+        private ScheduledFuture<?> pending;
+        private ZonedDateTime nextRun;
+        private boolean cancelled;
+
+        private DailySchedule(ScheduledExecutorService scheduler, LocalTime at) {
+            this.scheduler = scheduler;
+            this.at = at;
+        }
+
+        // Plans the first run after the previous planned one (null for none) that is still ahead
+        private synchronized void scheduleAfter(ZonedDateTime previous) {
+            if (cancelled) {
+                return;
+            }
+            ZonedDateTime now = ZonedDateTime.now(librarySystem.getClock().getClock());
+            LocalDate day = previous != null ? previous.toLocalDate().plusDays(1) : now.toLocalDate();
+            ZonedDateTime next = ZonedDateTime.of(day, at, now.getZone());
+            while (!next.isAfter(now)) {
+                day = day.plusDays(1);
+                next = ZonedDateTime.of(day, at, now.getZone());
+            }
+            ZonedDateTime planned = next;
+            nextRun = planned;
+            pending = scheduler.schedule(() -> {
+                try {
+                    AutoRenewJob.this.run();
+                } finally {
+                    scheduleAfter(planned);
+                }
+            }, Duration.between(now, planned).toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        public synchronized ZonedDateTime getNextRun() {
+            return nextRun;
+        }
+
+        // Stops future runs; a run already in progress finishes
+        public synchronized void cancel() {
+            cancelled = true;
+            if (pending != null) {
+                pending.cancel(false);
+            }
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Counts from one run of the job
+     */
+    public static class Result {
+        private final LocalDate dueDate;
+        private final int candidates;
+        private final int renewed;
+        private final int batches;
+        private final long elapsedNanos;
+
+        Result(LocalDate dueDate, int candidates, int renewed, int batches, long elapsedNanos) {
+            this.dueDate = dueDate;
+            this.candidates = candidates;
+            this.renewed = renewed;
+            this.batches = batches;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public LocalDate getDueDate() {
+            return dueDate;
+        }
+
+        public int getCandidates() {
+            return candidates;
+        }
+
+        public int getRenewed() {
+            return renewed;
+        }
+
+        public int getSkipped() {
+            return candidates - renewed;
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Auto-renewal for loans due %s: %d renewed, %d skipped, %d batch(es) in %.1f ms",
+                    dueDate, renewed, getSkipped(), batches, elapsedNanos / 1e6);
+        }
+    }
+}
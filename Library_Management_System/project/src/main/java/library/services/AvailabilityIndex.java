@@ -0,0 +1,177 @@
+package library.services;
+
+import library.branch.BranchAvailability;
+import library.branch.BranchNetwork;
+import library.models.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Available copies grouped by title
+ * A title is title + author ignoring case, as the recommendations count it.
+ * Finding the nearest copies reads only that title's copies and then walks
+ * the branches in their precomputed distance order, so the cost depends on
+ * the copies of the title and the number of branches, never on the size of
+ * the catalog. Issued copies, copies reserved by a transfer or a hold and
+ * copies at branches the network does not know are left out.
+ *
+ * Each title keeps a plain array of its copies rather than a set per branch:
+ * most titles have a copy or two, and the index has to fit next to millions
+ * of books without adding much to the heap.
+ */
+class AvailabilityIndex {
+    private static final int INITIAL_COPIES = 2;
+
+    private BranchNetwork network;
+    private final Map<TitleKey, TitleCopies> byTitle;
+
+    AvailabilityIndex(BranchNetwork network) {
+        this.network = network;
+        this.byTitle = new HashMap<>();
+    }
+
+    BranchNetwork getNetwork() {
+        return network;
+    }
+
+    // Empties the index for a new network; the caller files every book again
+    void reset(BranchNetwork network) {
+        this.network = network;
+        byTitle.clear();
+    }
+
+    // Files the copy under its title if it can be offered, or drops it; safe to call repeatedly
+    void update(Book book, boolean reserved) {
+        TitleKey key = new TitleKey(book.getTitle(), book.getAuthor());
+        TitleCopies copies = byTitle.get(key);
+        if (isOffered(book, reserved)) {
+            if (copies == null) {
+                copies = new TitleCopies();
+                byTitle.put(key, copies);
+            }
+            copies.add(book);
+        } else if (copies != null && copies.remove(book) && copies.size == 0) {
+            byTitle.remove(key);
+        }
+    }
+
+    // Before a catalog field changes, while the copy is still filed under its current title
+    void remove(Book book) {
+        TitleKey key = new TitleKey(book.getTitle(), book.getAuthor());
+        TitleCopies copies = byTitle.get(key);
+        if (copies != null && copies.remove(book) && copies.size == 0) {
+            byTitle.remove(key);
+        }
+    }
+
+    // Branches with an available copy of the title, nearest to the given branch first
+    List<BranchAvailability> findNearest(String title, String author, int from, int limit) {
+        List<BranchAvailability> found = new ArrayList<>();
+        TitleCopies copies = byTitle.get(new TitleKey(title, author));
+        if (copies == null) {
+            return found;
+        }
+        int[] counts = new int[network.getBranchCount()];
+        Book[] firstCopy = new Book[counts.length];
+        for (int i = 0; i < copies.size; i++) {
+            int branch = network.branchOf(copies.books[i].getBranch());
+            if (branch >= 0 && counts[branch]++ == 0) {
+                firstCopy[branch] = copies.books[i];
+            }
+        }
+        for (int rank = 0; rank < network.getReachableCount(from) && found.size() < limit; rank++) {
+            int branch = network.getNearestBranch(from, rank);
+            if (counts[branch] > 0) {
+                found.add(new BranchAvailability(network.getBranchName(branch), network.getDistance(from, branch),
+                        counts[branch], firstCopy[branch].getBookId()));
+            }
+        }
+        return found;
+    }
+
+    private boolean isOffered(Book book, boolean reserved) {
+        return book.isAvailable() && !reserved && network.branchOf(book.getBranch()) >= 0;
+    }
+
+    /**
+     * Title and author compared without case
+     * Holds the book's own strings, which copies loaded from a snapshot share,
+     * instead of building a lower-case copy for every lookup.
+     */
+    private static final class TitleKey {
+        private final String title;
+        private final String author;
+        private final int hash;
+
+        TitleKey(String title, String author) {
+            this.title = title;
+            this.author = author;
+            this.hash = 31 * caseInsensitiveHash(title) + caseInsensitiveHash(author);
+        }
+
+        // Consistent with equalsIgnoreCase, which compares characters in both cases
+        private static int caseInsensitiveHash(String text) {
+            int hash = 0;
+            for (int i = 0; i < text.length(); i++) {
+                hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(text.charAt(i)));
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof TitleKey)) return false;
+            TitleKey other = (TitleKey) obj;
+            return hash == other.hash && title.equalsIgnoreCase(other.title) && author.equalsIgnoreCase(other.author);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Available copies of one title, in no particular order
+     */
+    private static class TitleCopies {
+        private Book[] books = new Book[INITIAL_COPIES];
+        private int size;
+
+        boolean contains(Book book) {
+            for (int i = 0; i < size; i++) {
+                if (books[i] == book) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(Book book) {
+            if (contains(book)) {
+                return;
+            }
+            if (size == books.length) {
+                books = Arrays.copyOf(books, size * 2);
+            }
+            books[size++] = book;
+        }
+
+        boolean remove(Book book) {
+            for (int i = 0; i < size; i++) {
+                if (books[i] == book) {
+                    books[i] = books[--size];
+                    books[size] = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package library.services;
+
+import library.models.Book;
+
+import java.util.Objects;
+
+/**
+ * A normalized book search, used both to scan the catalog and as a cache key
+ * The key carries the catalog generation it was run against, so once books
+ * are added or renamed, lookups miss the older results and they age out.
+ */
+class BookQuery {
+    enum Field { ALL, TITLE, AUTHOR, ISBN }
+
+    private final Field field;
+    private final String lowerQuery;
+    private final long generation;
+
+    BookQuery(Field field, String query, long generation) {
+        this.field = field;
+        this.lowerQuery = query.toLowerCase();
+        this.generation = generation;
+    }
+
+    boolean matches(Book book) {
+        switch (field) {
+            case TITLE:
+                return book.getTitle().toLowerCase().contains(lowerQuery);
+            case AUTHOR:
+                return book.getAuthor().toLowerCase().contains(lowerQuery);
+            case ISBN:
+                return book.getIsbn().toLowerCase().contains(lowerQuery);
+            default:
+                return book.getTitle().toLowerCase().contains(lowerQuery) ||
+                        book.getAuthor().toLowerCase().contains(lowerQuery) ||
+                        book.getIsbn().toLowerCase().contains(lowerQuery) ||
+                        book.getBookId().toLowerCase().contains(lowerQuery);
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        BookQuery other = (BookQuery) obj;
+        return field == other.field && generation == other.generation && lowerQuery.equals(other.lowerQuery);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, lowerQuery, generation);
+    }
+}
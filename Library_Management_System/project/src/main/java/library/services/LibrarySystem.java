@@ -1,26 +1,92 @@
 package library.services;
 
+import library.branch.BranchAvailability;
+import library.branch.BranchNetwork;
+import library.branch.TransferRequest;
 import library.models.Book;
 import library.models.Member;
 import library.exceptions.*;
+import library.cache.RenderCache;
+import library.cache.SegmentedLruCache;
+import library.events.EventStream;
+import library.events.EventSubscription;
+import library.events.EventType;
+import library.policy.LoanPolicy;
+import library.policy.LoanPolicyStore;
+import library.time.LibraryClock;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
  * Main service class for library operations
  * Demonstrates composition, encapsulation, and business logic
+ * Public operations are synchronized so one instance can be shared between threads.
  */
 public class LibrarySystem {
     private Map<String, Book> books;
     private Map<String, Member> members;
-    private static final int DEFAULT_ISSUE_DAYS = 14;
+    private SegmentedLruCache<BookQuery, List<Book>> searchCache;
+    private long catalogGeneration; // bumped whenever search results may change
+    private RenderCache renderCache;
+    private MemberIndex memberIndex;
+    private LibraryClock clock;
+    private EventStream events;
+    private Map<String, Deque<String>> holds;
+    private TreeMap<Long, Set<String>> dueIndex; // due epoch day -> ids of books due that day
+    private AvailabilityIndex availability;
+    private Map<String, TransferRequest> transfers; // transfer id -> open transfer
+    private Map<String, TransferRequest> transfersByBook; // book id -> its open transfer
+    private long nextTransferNumber = 1;
+    private Book arriving; // copy completeTransfer is moving, its TRANSFER_COMPLETED stands for the change
+    private LoanPolicyStore policies;
+    private boolean deferringIndexes; // records are being loaded without secondary indexes
+    private volatile CountDownLatch pendingIndexes; // set until deferred indexes are built
+    private static final int SEARCH_CACHE_WEIGHT = 1 << 16; // Cached result entries in total, about 256 KB of references
+    private static final int RENDER_CACHE_SIZE = 10_000;
+    private static final int INDEX_BUILD_CHUNK = 16 * 1024;
 
     public LibrarySystem() {
+        this(true);
+    }
+
+    // Constructor allowing an empty system (e.g. a standby filled from a snapshot)
+    public LibrarySystem(boolean loadSampleData) {
+        this(LibraryClock.system(), loadSampleData);
+    }
+
+    // Constructor with an injected clock (e.g. fixed or simulated days)
+    public LibrarySystem(LibraryClock clock, boolean loadSampleData) {
+        this(clock, loadSampleData, new EventStream(EventStream.DEFAULT_CAPACITY));
+    }
+
+    // Constructor with an injected event stream (e.g. one persisted to an event log)
+    public LibrarySystem(LibraryClock clock, boolean loadSampleData, EventStream events) {
+        this(clock, loadSampleData, events, new LoanPolicyStore());
+    }
+
+    // Constructor with shared loan policies (e.g. kept when a snapshot replaces the system)
+    public LibrarySystem(LibraryClock clock, boolean loadSampleData, EventStream events, LoanPolicyStore policies) {
+        this.clock = clock;
+        this.events = events;
+        this.policies = policies;
         this.books = new HashMap<>();
         this.members = new HashMap<>();
-        initializeSampleData();
+        this.holds = new HashMap<>();
+        this.dueIndex = new TreeMap<>();
+        this.availability = new AvailabilityIndex(BranchNetwork.defaults());
+        this.transfers = new LinkedHashMap<>();
+        this.transfersByBook = new HashMap<>();
+        this.searchCache = new SegmentedLruCache<>(SEARCH_CACHE_WEIGHT, results -> results.size() + 1);
+        this.renderCache = new RenderCache(RENDER_CACHE_SIZE);
+        this.memberIndex = new MemberIndex(
+                member -> publish(EventType.MEMBER_UPDATED, null, member.getMemberId()));
+        if (loadSampleData) {
+            initializeSampleData();
+        }
     }
 
     // Initialize with some sample data
@@ -43,15 +109,29 @@ public class LibrarySystem {
     }
 
     // Book management methods
-    public void addBook(String bookId, String title, String author, String isbn) {
+    public synchronized void addBook(String bookId, String title, String author, String isbn) {
+        addBook(bookId, title, author, isbn, Book.DEFAULT_CATEGORY);
+    }
+
+    public synchronized void addBook(String bookId, String title, String author, String isbn, String category) {
         if (books.containsKey(bookId)) {
             throw new IllegalArgumentException("Book with ID " + bookId + " already exists");
         }
         Book book = new Book(bookId, title, author, isbn);
+        book.setCategory(category);
+        book.setBranch(availability.getNetwork().getDefaultBranch());
         books.put(bookId, book);
+        fileAvailability(book);
+        bookAdded(book);
+        publish(EventType.BOOK_ADDED, bookId, null);
     }
 
-    public Book getBook(String bookId) throws BookNotFoundException {
+    // Publishes BOOK_UPDATED through changeBook if the category really changes
+    public synchronized void setBookCategory(String bookId, String category) throws BookNotFoundException {
+        getBook(bookId).setCategory(category);
+    }
+
+    public synchronized Book getBook(String bookId) throws BookNotFoundException {
         Book book = books.get(bookId);
         if (book == null) {
             throw new BookNotFoundException(bookId);
@@ -59,38 +139,105 @@ public class LibrarySystem {
         return book;
     }
 
-    public List<Book> getAllBooks() {
+    // Books for the ids, looked up in one lock hold; ids not in the catalog are left out
+    public synchronized Map<String, Book> getBooks(Collection<String> bookIds) {
+        Map<String, Book> found = new HashMap<>();
+        for (String bookId : bookIds) {
+            Book book = books.get(bookId);
+            if (book != null) {
+                found.put(bookId, book);
+            }
+        }
+        return found;
+    }
+
+    public synchronized List<Book> getAllBooks() {
         return new ArrayList<>(books.values());
     }
 
-    public List<Book> getAvailableBooks() {
+    public synchronized void importBook(Book book) {
+        if (books.containsKey(book.getBookId())) {
+            throw new IllegalArgumentException("Book with ID " + book.getBookId() + " already exists");
+        }
+        books.put(book.getBookId(), book);
+        if (!deferringIndexes) {
+            indexDue(book);
+            fileAvailability(book);
+        }
+        bookAdded(book);
+    }
+
+    private void bookAdded(Book book) {
+        book.setChangeListener(this::changeBook);
+        catalogGeneration++;
+    }
+
+    // Catalog edits made through the Book setters, from here or by any holder of the book;
+    // the change runs under the library lock, with the copy unfiled while its title changes
+    private synchronized void changeBook(Book book, boolean searchable, Runnable change) {
+        availability.remove(book);
+        change.run();
+        fileAvailability(book);
+        if (searchable) {
+            catalogGeneration++;
+        }
+        if (book != arriving) {
+            publish(EventType.BOOK_UPDATED, book.getBookId(), null);
+        }
+    }
+
+    public synchronized List<Book> getAvailableBooks() {
         return books.values().stream()
                 .filter(Book::isAvailable)
                 .collect(Collectors.toList());
     }
 
-    public List<Book> getIssuedBooks() {
+    public synchronized List<Book> getIssuedBooks() {
         return books.values().stream()
                 .filter(book -> !book.isAvailable())
                 .collect(Collectors.toList());
     }
 
-    public List<Book> getOverdueBooks() {
+    public synchronized List<Book> getOverdueBooks() {
+        return getOverdueBooks(clock.today());
+    }
+
+    public synchronized List<Book> getOverdueBooks(LocalDate asOf) {
+        return getOverdueBooks(asOf.toEpochDay());
+    }
+
+    private List<Book> getOverdueBooks(long asOfEpochDay) {
         return books.values().stream()
-                .filter(Book::isOverdue)
+                .filter(book -> book.isOverdue(asOfEpochDay))
                 .collect(Collectors.toList());
     }
 
     // Member management methods
     public void addMember(String memberId, String name, String email, String phone) throws LibraryException {
-        if (members.containsKey(memberId)) {
-            throw new LibraryException("Member with ID " + memberId + " already exists");
+        awaitIndexes();
+        synchronized (this) {
+            if (members.containsKey(memberId)) {
+                throw new LibraryException("Member with ID " + memberId + " already exists");
+            }
+            checkEmailAvailable(email);
+            Member member = new Member(memberId, name, email, phone, clock.todayDate(), Collections.emptyList());
+            members.put(memberId, member);
+            memberIndex.add(member);
+            member.setContactListener(this::changeContact);
+            publish(EventType.MEMBER_ADDED, null, memberId);
         }
-        Member member = new Member(memberId, name, email, phone);
-        members.put(memberId, member);
     }
 
-    public Member getMember(String memberId) throws MemberNotFoundException {
+    public synchronized void setMemberTier(String memberId, String tier) throws LibraryException {
+        Member member = getMember(memberId);
+        if (tier == null || !policies.current().hasTier(tier.trim().toLowerCase())) {
+            throw new LibraryException("Unknown membership tier: " + tier);
+        }
+        member.setTier(tier);
+        publish(EventType.MEMBER_UPDATED, null, memberId);
+    }
+
+    public synchronized Member getMember(String memberId) throws MemberNotFoundException {
         Member member = members.get(memberId);
         if (member == null) {
             throw new MemberNotFoundException(memberId);
@@ -98,28 +245,139 @@ public class LibrarySystem {
         return member;
     }
 
-    public List<Member> getAllMembers() {
+    public synchronized List<Member> getAllMembers() {
         return new ArrayList<>(members.values());
     }
 
+    // Copies of every book and member taken in one lock hold, so each loan shows on both
+    // sides; they can be read at leisure while the library keeps changing
+    public synchronized RecordCopies copyRecords() {
+        List<Book> bookCopies = new ArrayList<>(books.size());
+        for (Book book : books.values()) {
+            bookCopies.add(book.copy());
+        }
+        List<Member> memberCopies = new ArrayList<>(members.size());
+        for (Member member : members.values()) {
+            memberCopies.add(member.copy());
+        }
+        return new RecordCopies(bookCopies, memberCopies);
+    }
+
+    public void importMember(Member member) throws LibraryException {
+        synchronized (this) {
+            if (deferringIndexes) {
+                // Email uniqueness is trusted here; the snapshot came from a system that enforced it
+                putImportedMember(member);
+                return;
+            }
+        }
+        awaitIndexes();
+        synchronized (this) {
+            checkEmailAvailable(member.getEmail());
+            putImportedMember(member);
+            memberIndex.add(member);
+        }
+    }
+
+    private void putImportedMember(Member member) throws LibraryException {
+        if (members.containsKey(member.getMemberId())) {
+            throw new LibraryException("Member with ID " + member.getMemberId() + " already exists");
+        }
+        members.put(member.getMemberId(), member);
+        member.setContactListener(this::changeContact);
+    }
+
+    // Imported records are not published one by one, a restart would append the
+    // whole catalog to a persisted event log again; the loader publishes one marker
+    public synchronized void snapshotLoaded() {
+        publish(EventType.SNAPSHOT_LOADED, null, null);
+    }
+
+    // Contact edits go through the library lock like every other change; during a
+    // deferred build they wait for the member index so email uniqueness is checked
+    private void changeContact(Member member, String newEmail, Runnable change) {
+        awaitIndexes();
+        synchronized (this) {
+            memberIndex.changeContact(member, newEmail, change);
+        }
+    }
+
+    private void checkEmailAvailable(String email) throws LibraryException {
+        if (memberIndex.isEmailTaken(email)) {
+            throw new LibraryException("Email " + email + " is already used by another member");
+        }
+    }
+
+    public Member getMemberByEmail(String email) throws MemberNotFoundException {
+        awaitIndexes();
+        synchronized (this) {
+            Member member = memberIndex.findByEmail(email);
+            if (member == null) {
+                throw new MemberNotFoundException("email", email);
+            }
+            return member;
+        }
+    }
+
+    public List<Member> getMembersByPhone(String phone) {
+        awaitIndexes();
+        synchronized (this) {
+            return memberIndex.findByPhone(phone);
+        }
+    }
+
     // Book issue/return methods
-    public void issueBook(String bookId, String memberId) throws LibraryException {
+    public synchronized void issueBook(String bookId, String memberId) throws LibraryException {
         Book book = getBook(bookId);
         Member member = getMember(memberId);
 
         if (!book.isAvailable()) {
             throw new BookAlreadyIssuedException(bookId);
         }
+        TransferRequest transfer = transfersByBook.get(bookId);
+        if (transfer != null) {
+            throw new LibraryException("Book " + bookId + " is in transit to branch " + transfer.getToBranch());
+        }
 
-        if (!member.canIssueMoreBooks()) {
+        // Read the policy once so a concurrent reload cannot mix rules within one checkout
+        LoanPolicy policy = policies.current();
+        int tier = policy.tierOf(member.getTier());
+        if (!member.canIssueMoreBooks(policy.getMaxLoans(tier))) {
             throw new LibraryException("Member " + memberId + " has reached maximum book limit");
         }
+        int categoryCap = policy.getCategoryCap(tier, policy.categoryOf(book.getCategory()));
+        if (categoryCap != LoanPolicy.UNCAPPED && countIssuedInCategory(member, book.getCategory()) >= categoryCap) {
+            throw new LibraryException("Member " + memberId + " has reached the limit of "
+                    + categoryCap + " " + book.getCategory() + " books");
+        }
+
+        Deque<String> queue = holds.get(bookId);
+        if (queue != null) {
+            if (!queue.peekFirst().equals(memberId)) {
+                throw new LibraryException("Book " + bookId + " is on hold for another member");
+            }
+            removeHold(bookId, queue, memberId); // Hold fulfilled
+        }
 
-        book.issueBook(memberId, DEFAULT_ISSUE_DAYS);
+        book.issueBook(memberId, policy.getLoanDays(tier), clock.todayDate());
+        indexDue(book);
+        fileAvailability(book);
         member.addIssuedBook(bookId);
+        publish(EventType.BOOK_ISSUED, bookId, memberId);
     }
 
-    public void returnBook(String bookId, String memberId) throws LibraryException {
+    private int countIssuedInCategory(Member member, String category) {
+        int count = 0;
+        for (int i = 0; i < member.getIssuedBooksCount(); i++) {
+            Book issued = books.get(member.getIssuedBookId(i));
+            if (issued != null && issued.getCategory().equals(category)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized void returnBook(String bookId, String memberId) throws LibraryException {
         Book book = getBook(bookId);
         Member member = getMember(memberId);
 
@@ -131,41 +389,338 @@ public class LibrarySystem {
             throw new LibraryException("Book " + bookId + " was not issued to member " + memberId);
         }
 
+        unindexDue(book);
         book.returnBook();
+        fileAvailability(book);
         member.removeIssuedBook(bookId);
+        publish(EventType.BOOK_RETURNED, bookId, memberId);
+    }
+
+    // Consistency repair
+
+    // Rechecks one book/member pair under the lock; returns true if the two sides disagree.
+    // With repair, a book issued to an unknown member is returned, and otherwise the
+    // member's loan list is corrected to match the book, which carries the loan dates.
+    public synchronized boolean reconcileLoan(String bookId, String memberId, boolean repair) {
+        Book book = books.get(bookId);
+        Member member = members.get(memberId);
+        boolean bookSays = book != null && !book.isAvailable() && memberId.equals(book.getIssuedTo());
+        boolean memberSays = member != null && member.hasIssuedBook(bookId);
+        if (bookSays == memberSays) {
+            return false;
+        }
+        if (!repair) {
+            return true;
+        }
+        if (bookSays && member == null) {
+            unindexDue(book);
+            book.returnBook();
+            fileAvailability(book);
+            publish(EventType.BOOK_RETURNED, bookId, memberId);
+        } else if (bookSays) {
+            member.addIssuedBook(bookId);
+            publish(EventType.MEMBER_UPDATED, null, memberId);
+        } else {
+            member.removeIssuedBook(bookId);
+            publish(EventType.MEMBER_UPDATED, null, memberId);
+        }
+        return true;
+    }
+
+    // Renewal methods
+    public synchronized void renewBook(String bookId, String memberId) throws LibraryException {
+        Book book = getBook(bookId);
+        Member member = getMember(memberId);
+
+        if (book.isAvailable() || !book.getIssuedTo().equals(memberId)) {
+            throw new LibraryException("Book " + bookId + " is not issued to member " + memberId);
+        }
+
+        LoanPolicy policy = policies.current();
+        int tier = policy.tierOf(member.getTier());
+        String refusal = renewalRefusal(book, policy, tier);
+        if (refusal != null) {
+            throw new RenewalNotAllowedException(bookId, refusal);
+        }
+        renew(book, policy.getLoanDays(tier));
+    }
+
+    // Renews the listed books still due on the given day that the policy allows; returns how many were renewed
+    public synchronized int renewBooksDueOn(Collection<String> bookIds, LocalDate dueDate) {
+        long dueEpochDay = dueDate.toEpochDay();
+        LoanPolicy policy = policies.current();
+        int renewed = 0;
+        for (String bookId : bookIds) {
+            Book book = books.get(bookId);
+            if (book == null || book.isAvailable() || book.getDueEpochDay() != dueEpochDay) {
+                continue;
+            }
+            Member member = members.get(book.getIssuedTo());
+            int tier = policy.tierOf(member != null ? member.getTier() : Member.DEFAULT_TIER);
+            if (renewalRefusal(book, policy, tier) == null) {
+                renew(book, policy.getLoanDays(tier));
+                renewed++;
+            }
+        }
+        return renewed;
+    }
+
+    // Ids of the books due between the two days, inclusive
+    public List<String> getBookIdsDueBetween(LocalDate from, LocalDate to) {
+        awaitIndexes();
+        synchronized (this) {
+            List<String> bookIds = new ArrayList<>();
+            for (Set<String> due : dueIndex.subMap(from.toEpochDay(), true, to.toEpochDay(), true).values()) {
+                bookIds.addAll(due);
+            }
+            return bookIds;
+        }
+    }
+
+    private String renewalRefusal(Book book, LoanPolicy policy, int tier) {
+        if (book.getRenewals() >= policy.getMaxRenewals(tier)) {
+            return "renewal limit of " + policy.getMaxRenewals(tier) + " reached";
+        }
+        if (holds.containsKey(book.getBookId())) {
+            return "another member has placed a hold";
+        }
+        return null;
+    }
+
+    // The new loan period starts at the current due date, or today if the book is already overdue
+    private void renew(Book book, int loanDays) {
+        long from = Math.max(book.getDueEpochDay(), clock.today());
+        unindexDue(book);
+        book.renewBook(LocalDate.ofEpochDay(from + loanDays));
+        indexDue(book);
+        publish(EventType.BOOK_RENEWED, book.getBookId(), book.getIssuedTo());
+    }
+
+    private void indexDue(Book book) {
+        if (!book.isAvailable()) {
+            dueIndex.computeIfAbsent(book.getDueEpochDay(), day -> new HashSet<>()).add(book.getBookId());
+        }
+    }
+
+    private void unindexDue(Book book) {
+        Set<String> due = dueIndex.get(book.getDueEpochDay());
+        if (due != null && due.remove(book.getBookId()) && due.isEmpty()) {
+            dueIndex.remove(book.getDueEpochDay());
+        }
+    }
+
+    // Hold methods, a first-come queue of members waiting for an issued book
+    public synchronized void placeHold(String bookId, String memberId) throws LibraryException {
+        Book book = getBook(bookId);
+        getMember(memberId);
+
+        // A returned copy kept for the first member in the queue can still be queued for
+        if (book.isAvailable() && !holds.containsKey(bookId)) {
+            throw new LibraryException("Book " + bookId + " is available, issue it instead");
+        }
+        if (memberId.equals(book.getIssuedTo())) {
+            throw new LibraryException("Book " + bookId + " is already issued to member " + memberId);
+        }
+        Deque<String> queue = holds.computeIfAbsent(bookId, id -> new ArrayDeque<>());
+        if (queue.contains(memberId)) {
+            throw new LibraryException("Member " + memberId + " already has a hold on book " + bookId);
+        }
+        queue.addLast(memberId);
+        publish(EventType.HOLD_PLACED, bookId, memberId);
+    }
+
+    public synchronized void cancelHold(String bookId, String memberId) throws LibraryException {
+        Deque<String> queue = holds.get(bookId);
+        if (queue == null || !queue.contains(memberId)) {
+            throw new LibraryException("Member " + memberId + " has no hold on book " + bookId);
+        }
+        removeHold(bookId, queue, memberId);
+        publish(EventType.HOLD_CANCELLED, bookId, memberId);
+    }
+
+    public synchronized List<String> getHolds(String bookId) {
+        Deque<String> queue = holds.get(bookId);
+        return queue == null ? Collections.emptyList() : new ArrayList<>(queue);
+    }
+
+    private void removeHold(String bookId, Deque<String> queue, String memberId) {
+        queue.remove(memberId);
+        if (queue.isEmpty()) {
+            holds.remove(bookId);
+            Book book = books.get(bookId);
+            if (book != null) {
+                fileAvailability(book); // A returned copy kept for the hold is free again
+            }
+        }
+    }
+
+    // Branch methods, each copy is shelved at a branch of the branch network
+    public synchronized BranchNetwork getBranchNetwork() {
+        return availability.getNetwork();
+    }
+
+    // Replaces the network and refiles every copy; copies at branches it does not
+    // list are not found by findNearestCopies until they are moved to one
+    public void setBranchNetwork(BranchNetwork network) {
+        awaitIndexes();
+        synchronized (this) {
+            availability.reset(network);
+            for (Book book : books.values()) {
+                fileAvailability(book);
+            }
+        }
+    }
+
+    public synchronized void setBookBranch(String bookId, String branch) throws LibraryException {
+        Book book = getBook(bookId);
+        String destination = availability.getNetwork().getBranchName(branchIndex(branch));
+        if (transfersByBook.containsKey(bookId)) {
+            throw new LibraryException("Book " + bookId + " is in transit");
+        }
+        book.setBranch(destination); // Refiled and published by changeBook
+    }
+
+    // Branches holding an available copy of the title, nearest to the given branch first
+    public List<BranchAvailability> findNearestCopies(String title, String author, String branch, int limit)
+            throws LibraryException {
+        awaitIndexes();
+        synchronized (this) {
+            return availability.findNearest(title.trim(), author.trim(), branchIndex(branch), limit);
+        }
+    }
+
+    // Sends an available copy to another branch; it cannot be issued until the transfer is completed
+    public synchronized TransferRequest requestTransfer(String bookId, String toBranch) throws LibraryException {
+        Book book = getBook(bookId);
+        String destination = availability.getNetwork().getBranchName(branchIndex(toBranch));
+        if (!book.isAvailable()) {
+            throw new BookAlreadyIssuedException(bookId);
+        }
+        if (transfersByBook.containsKey(bookId)) {
+            throw new LibraryException("Book " + bookId + " is already in transit");
+        }
+        if (holds.containsKey(bookId)) {
+            throw new LibraryException("Book " + bookId + " is kept for a member's hold");
+        }
+        if (book.getBranch().equals(destination)) {
+            throw new LibraryException("Book " + bookId + " is already at branch " + destination);
+        }
+
+        TransferRequest transfer = new TransferRequest("T" + nextTransferNumber++, bookId, book.getBranch(),
+                destination, clock.todayDate());
+        transfers.put(transfer.getTransferId(), transfer);
+        transfersByBook.put(bookId, transfer);
+        fileAvailability(book);
+        publish(EventType.TRANSFER_REQUESTED, bookId, null);
+        return transfer;
+    }
+
+    // Sends the nearest available copy of the title to a branch that has none
+    public TransferRequest requestNearestTransfer(String title, String author, String toBranch)
+            throws LibraryException {
+        awaitIndexes();
+        synchronized (this) {
+            List<BranchAvailability> nearest = availability.findNearest(title.trim(), author.trim(),
+                    branchIndex(toBranch), 1);
+            if (nearest.isEmpty()) {
+                throw new LibraryException("No available copy of " + title + " at a reachable branch");
+            }
+            BranchAvailability closest = nearest.get(0);
+            if (closest.getBranch().equals(toBranch.trim().toLowerCase())) {
+                throw new LibraryException("A copy of " + title + " is already available at branch "
+                        + closest.getBranch());
+            }
+            return requestTransfer(closest.getBookId(), toBranch);
+        }
+    }
+
+    // The copy has arrived and is shelved at the destination
+    public synchronized void completeTransfer(String transferId) throws LibraryException {
+        TransferRequest transfer = getOpenTransfer(transferId);
+        Book book = getBook(transfer.getBookId());
+        closeTransfer(transfer);
+        arriving = book;
+        try {
+            book.setBranch(transfer.getToBranch());
+        } finally {
+            arriving = null;
+        }
+        fileAvailability(book);
+        publish(EventType.TRANSFER_COMPLETED, book.getBookId(), null);
+    }
+
+    // The copy stays at its original branch
+    public synchronized void cancelTransfer(String transferId) throws LibraryException {
+        TransferRequest transfer = getOpenTransfer(transferId);
+        Book book = getBook(transfer.getBookId());
+        closeTransfer(transfer);
+        fileAvailability(book);
+        publish(EventType.TRANSFER_CANCELLED, book.getBookId(), null);
+    }
+
+    public synchronized List<TransferRequest> getOpenTransfers() {
+        return new ArrayList<>(transfers.values());
+    }
+
+    private TransferRequest getOpenTransfer(String transferId) throws LibraryException {
+        TransferRequest transfer = transfers.get(transferId);
+        if (transfer == null) {
+            throw new LibraryException("No open transfer with ID " + transferId);
+        }
+        return transfer;
+    }
+
+    private void closeTransfer(TransferRequest transfer) {
+        transfers.remove(transfer.getTransferId());
+        transfersByBook.remove(transfer.getBookId());
+    }
+
+    private int branchIndex(String branch) throws LibraryException {
+        int index = branch == null ? -1 : availability.getNetwork().branchOf(branch.trim().toLowerCase());
+        if (index < 0) {
+            throw new LibraryException("Unknown branch: " + branch);
+        }
+        return index;
+    }
+
+    private void fileAvailability(Book book) {
+        availability.update(book, isReserved(book.getBookId()));
+    }
+
+    // A copy reserved by a transfer or a hold is not offered to other members
+    private boolean isReserved(String bookId) {
+        return transfersByBook.containsKey(bookId) || holds.containsKey(bookId);
     }
 
     // Search methods
-    public List<Book> searchBooks(String query) {
-        String lowerQuery = query.toLowerCase();
-        return books.values().stream()
-                .filter(book -> 
-                    book.getTitle().toLowerCase().contains(lowerQuery) ||
-                    book.getAuthor().toLowerCase().contains(lowerQuery) ||
-                    book.getIsbn().toLowerCase().contains(lowerQuery) ||
-                    book.getBookId().toLowerCase().contains(lowerQuery))
-                .collect(Collectors.toList());
+    public synchronized List<Book> searchBooks(String query) {
+        return search(new BookQuery(BookQuery.Field.ALL, query, catalogGeneration));
     }
 
-    public List<Book> searchBooksByTitle(String title) {
-        return books.values().stream()
-                .filter(book -> book.getTitle().toLowerCase().contains(title.toLowerCase()))
-                .collect(Collectors.toList());
+    public synchronized List<Book> searchBooksByTitle(String title) {
+        return search(new BookQuery(BookQuery.Field.TITLE, title, catalogGeneration));
     }
 
-    public List<Book> searchBooksByAuthor(String author) {
-        return books.values().stream()
-                .filter(book -> book.getAuthor().toLowerCase().contains(author.toLowerCase()))
-                .collect(Collectors.toList());
+    public synchronized List<Book> searchBooksByAuthor(String author) {
+        return search(new BookQuery(BookQuery.Field.AUTHOR, author, catalogGeneration));
     }
 
-    public List<Book> searchBooksByIsbn(String isbn) {
-        return books.values().stream()
-                .filter(book -> book.getIsbn().toLowerCase().contains(isbn.toLowerCase()))
-                .collect(Collectors.toList());
+    public synchronized List<Book> searchBooksByIsbn(String isbn) {
+        return search(new BookQuery(BookQuery.Field.ISBN, isbn, catalogGeneration));
     }
 
-    public List<Member> searchMembers(String query) {
+    private List<Book> search(BookQuery query) {
+        List<Book> results = searchCache.get(query);
+        if (results == null) {
+            results = books.values().stream()
+                    .filter(query::matches)
+                    .collect(Collectors.toList());
+            searchCache.put(query, results);
+        }
+        return new ArrayList<>(results);
+    }
+
+    public synchronized List<Member> searchMembers(String query) {
         String lowerQuery = query.toLowerCase();
         return members.values().stream()
                 .filter(member ->
@@ -175,34 +730,192 @@ public class LibrarySystem {
                 .collect(Collectors.toList());
     }
 
+    // Matches members whose name has a word starting with each word of the query
+    public List<Member> searchMembersByName(String query) {
+        awaitIndexes();
+        synchronized (this) {
+            return memberIndex.searchByName(query);
+        }
+    }
+
+    // Fast start: load records first, build the secondary indexes afterwards
+
+    // Makes importBook/importMember skip the due-date, availability and member indexes until
+    // buildIndexesInBackground is called. Lookups by id work throughout; calls
+    // that need an index wait for the build.
+    public synchronized void deferIndexes() {
+        if (!books.isEmpty() || !members.isEmpty()) {
+            throw new IllegalStateException("Indexes can only be deferred on an empty library");
+        }
+        deferringIndexes = true;
+        pendingIndexes = new CountDownLatch(1);
+    }
+
+    // Builds the deferred indexes on a daemon thread, a chunk of records per lock hold
+    public synchronized Thread buildIndexesInBackground() {
+        if (!deferringIndexes) {
+            throw new IllegalStateException("Indexes are not deferred");
+        }
+        Book[] bookArray = books.values().toArray(new Book[0]);
+        Member[] memberArray = members.values().toArray(new Member[0]);
+        deferringIndexes = false; // Records added from now on are indexed as they arrive
+        Thread builder = new Thread(() -> buildIndexes(bookArray, memberArray), "library-index-builder");
+        builder.setDaemon(true);
+        builder.start();
+        return builder;
+    }
+
+    // Both index updates are idempotent, so records changed by other calls mid-build stay correct
+    private void buildIndexes(Book[] bookArray, Member[] memberArray) {
+        for (int start = 0; start < bookArray.length; start += INDEX_BUILD_CHUNK) {
+            synchronized (this) {
+                for (int i = start; i < Math.min(start + INDEX_BUILD_CHUNK, bookArray.length); i++) {
+                    indexDue(bookArray[i]);
+                    fileAvailability(bookArray[i]);
+                }
+            }
+        }
+        for (int start = 0; start < memberArray.length; start += INDEX_BUILD_CHUNK) {
+            synchronized (this) {
+                for (int i = start; i < Math.min(start + INDEX_BUILD_CHUNK, memberArray.length); i++) {
+                    try {
+                        memberIndex.add(memberArray[i]);
+                    } catch (IllegalArgumentException e) {
+                        // Loaded without the uniqueness check; keep serving and leave the duplicate out
+                        System.err.println("Member " + memberArray[i].getMemberId() + " not indexed: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        CountDownLatch pending = pendingIndexes;
+        pendingIndexes = null;
+        pending.countDown();
+    }
+
+    public boolean isIndexesReady() {
+        return pendingIndexes == null;
+    }
+
+    // Blocks until deferred indexes are built, if there are any
+    public void awaitIndexes() {
+        CountDownLatch pending = pendingIndexes;
+        if (pending == null) {
+            return;
+        }
+        boolean interrupted = false;
+        while (true) {
+            try {
+                pending.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Rendering methods, served from the render cache
+    public String getBookDetails(Book book) {
+        return renderCache.bookDetails(book, clock.today());
+    }
+
+    public String getMemberDetails(Member member) {
+        return renderCache.memberDetails(member, getMaxBooksAllowed(member));
+    }
+
+    // Loan limit of the member's tier under the current policy
+    public int getMaxBooksAllowed(Member member) {
+        LoanPolicy policy = policies.current();
+        return policy.getMaxLoans(policy.tierOf(member.getTier()));
+    }
+
+    public LoanPolicyStore getLoanPolicies() {
+        return policies;
+    }
+
+    public SegmentedLruCache<?, ?> getSearchCache() {
+        return searchCache;
+    }
+
+    public RenderCache getRenderCache() {
+        return renderCache;
+    }
+
     // Statistics methods
-    public int getTotalBooks() {
+    public synchronized int getTotalBooks() {
         return books.size();
     }
 
-    public int getAvailableBooksCount() {
+    public synchronized int getAvailableBooksCount() {
         return (int) books.values().stream().filter(Book::isAvailable).count();
     }
 
-    public int getIssuedBooksCount() {
+    public synchronized int getIssuedBooksCount() {
         return (int) books.values().stream().filter(book -> !book.isAvailable()).count();
     }
 
-    public int getOverdueBooksCount() {
-        return (int) books.values().stream().filter(Book::isOverdue).count();
+    public synchronized int getOverdueBooksCount() {
+        return getOverdueBooksCount(clock.today());
     }
 
-    public int getTotalMembers() {
+    public synchronized int getOverdueBooksCount(LocalDate asOf) {
+        return getOverdueBooksCount(asOf.toEpochDay());
+    }
+
+    private int getOverdueBooksCount(long asOfEpochDay) {
+        int count = 0;
+        for (Book book : books.values()) {
+            if (book.isOverdue(asOfEpochDay)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public synchronized int getTotalMembers() {
         return members.size();
     }
 
-    public void displayStatistics() {
+    public LibraryClock getClock() {
+        return clock;
+    }
+
+    // Hands over each member's open loans and subscribes in the same lock hold, so every
+    // loan shows up exactly once: in the handover or as a later BOOK_ISSUED event
+    public synchronized EventSubscription subscribeAfterLoans(BiConsumer<String, List<String>> loans) {
+        for (Member member : members.values()) {
+            if (member.getIssuedBooksCount() > 0) {
+                loans.accept(member.getMemberId(), member.getIssuedBooks());
+            }
+        }
+        return events.subscribe();
+    }
+
+    public EventStream getEvents() {
+        return events;
+    }
+
+    private void publish(EventType type, String bookId, String memberId) {
+        events.publish(type, bookId, memberId, clock.today());
+    }
+
+    public synchronized void displayStatistics() {
+        displayStatistics(clock.todayDate());
+    }
+
+    public synchronized void displayStatistics(LocalDate asOf) {
         System.out.println("\n=== LIBRARY STATISTICS ===");
+        System.out.println("As of: " + asOf);
         System.out.println("Total Books: " + getTotalBooks());
         System.out.println("Available Books: " + getAvailableBooksCount());
         System.out.println("Issued Books: " + getIssuedBooksCount());
-        System.out.println("Overdue Books: " + getOverdueBooksCount());
+        System.out.println("Overdue Books: " + getOverdueBooksCount(asOf));
         System.out.println("Total Members: " + getTotalMembers());
+        System.out.println("Search " + searchCache);
+        System.out.println("Book Render " + renderCache.getBookCache());
+        System.out.println("Member Render " + renderCache.getMemberCache());
         System.out.println("==========================");
     }
 }
\ No newline at end of file
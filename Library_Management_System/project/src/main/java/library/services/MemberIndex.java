@@ -0,0 +1,152 @@
+package library.services;
+
+import library.models.Member;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Secondary indexes over members
+ * Exact hash lookups on normalized email and phone, and a sorted index of
+ * name tokens for prefix search. Also enforces that emails are unique, both
+ * when members are added and when Member.setEmail is called. The library
+ * calls in here under its own lock, including for contact changes.
+ */
+class MemberIndex {
+    private final Map<String, Member> byEmail;
+    private final Map<String, Set<Member>> byPhone;
+    private final TreeMap<String, Set<Member>> byNameToken;
+    private final Consumer<Member> changeListener;
+
+    MemberIndex(Consumer<Member> changeListener) {
+        this.byEmail = new HashMap<>();
+        this.byPhone = new HashMap<>();
+        this.byNameToken = new TreeMap<>();
+        this.changeListener = changeListener;
+    }
+
+    boolean isEmailTaken(String email) {
+        String normalized = normalizeEmail(email);
+        return !normalized.isEmpty() && byEmail.containsKey(normalized);
+    }
+
+    // Rejects a member whose email another indexed member already uses
+    void add(Member member) {
+        String email = normalizeEmail(member.getEmail());
+        if (!email.isEmpty()) {
+            Member owner = byEmail.putIfAbsent(email, member);
+            if (owner != null && owner != member) {
+                throw new IllegalArgumentException("Email " + member.getEmail()
+                        + " is already used by member " + owner.getMemberId());
+            }
+        }
+        String phone = normalizePhone(member.getPhone());
+        if (!phone.isEmpty()) {
+            byPhone.computeIfAbsent(phone, key -> new LinkedHashSet<>()).add(member);
+        }
+        for (String token : tokenize(member.getName())) {
+            byNameToken.computeIfAbsent(token, key -> new LinkedHashSet<>()).add(member);
+        }
+    }
+
+    private void remove(Member member) {
+        byEmail.remove(normalizeEmail(member.getEmail()), member);
+        removeFrom(byPhone, normalizePhone(member.getPhone()), member);
+        for (String token : tokenize(member.getName())) {
+            removeFrom(byNameToken, token, member);
+        }
+    }
+
+    // Lookups
+    Member findByEmail(String email) {
+        return byEmail.get(normalizeEmail(email));
+    }
+
+    List<Member> findByPhone(String phone) {
+        Set<Member> matches = byPhone.get(normalizePhone(phone));
+        return matches == null ? new ArrayList<>() : new ArrayList<>(matches);
+    }
+
+    // Members having, for every query token, a name token starting with it
+    List<Member> searchByName(String query) {
+        Set<Member> result = null;
+        for (String prefix : tokenize(query)) {
+            Set<Member> matches = new LinkedHashSet<>();
+            for (Set<Member> members : byNameToken.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+                matches.addAll(members);
+            }
+            if (result == null) {
+                result = matches;
+            } else {
+                result.retainAll(matches);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result == null ? new ArrayList<>() : new ArrayList<>(result);
+    }
+
+    // Reindexes the member around a contact change, see Member.ContactListener
+    void changeContact(Member member, String newEmail, Runnable change) {
+        if (newEmail != null) {
+            Member owner = findByEmail(newEmail);
+            if (owner != null && owner != member) {
+                throw new IllegalArgumentException("Email " + newEmail + " is already used by member " + owner.getMemberId());
+            }
+        }
+        remove(member);
+        change.run();
+        add(member);
+        changeListener.accept(member);
+    }
+
+    // Normalization
+    static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase();
+    }
+
+    static String normalizePhone(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    static List<String> tokenize(String name) {
+        if (name == null) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : name.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void removeFrom(Map<String, Set<Member>> index, String key, Member member) {
+        Set<Member> members = index.get(key);
+        if (members != null) {
+            members.remove(member);
+            if (members.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
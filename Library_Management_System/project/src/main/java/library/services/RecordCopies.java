@@ -0,0 +1,31 @@
+package library.services;
+
+import library.models.Book;
+import library.models.Member;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Detached copies of a library's books and members, taken at one moment
+ * Nothing else holds the copies, so they can be read without the library
+ * lock and loans agree between the book and the member side.
+ */
+public final class RecordCopies {
+    private final List<Book> books;
+    private final List<Member> members;
+
+    RecordCopies(List<Book> books, List<Member> members) {
+        this.books = Collections.unmodifiableList(books);
+        this.members = Collections.unmodifiableList(members);
+    }
+
+    // Getters
+    public List<Book> getBooks() {
+        return books;
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+}
@@ -0,0 +1,116 @@
+package library.simulation;
+
+import library.cache.SegmentedLruCache;
+
+import java.util.SplittableRandom;
+
+/**
+ * Measures the hit rate of SegmentedLruCache under Zipf-distributed lookups
+ * Keys are ranks drawn from a Zipf distribution, the way popular titles are
+ * searched for far more often than the rest. Every miss inserts the key with
+ * a fixed weight, like a title search returning its copies; a share of the
+ * lookups are broad searches with large results, which the cache should
+ * refuse rather than let them flush the popular entries.
+ *
+ * For each exponent the hit rate is compared with the best a fixed cache of
+ * the same capacity could do, holding the most popular keys from the start.
+ *
+ * Usage: CacheBenchmark [--keys=N] [--lookups=N] [--capacity=WEIGHT]
+ *        [--weight=N] [--broad=P] [--broad-weight=N] [--zipf=S,S,...] [--seed=N]
+ */
+public class CacheBenchmark {
+    private int keys = 100_000;
+    private long lookups = 2_000_000;
+    private long capacity = 1 << 16;
+    private int weight = 3;
+    private int broadPercent = 1;
+    private int broadWeight = 20_000;
+    private double[] exponents = {0.6, 0.8, 1.0, 1.2};
+    private long seed = 42;
+
+    public static void main(String[] args) {
+        CacheBenchmark benchmark = new CacheBenchmark();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "keys":
+                    benchmark.keys = Integer.parseInt(value);
+                    break;
+                case "lookups":
+                    benchmark.lookups = Long.parseLong(value);
+                    break;
+                case "capacity":
+                    benchmark.capacity = Long.parseLong(value);
+                    break;
+                case "weight":
+                    benchmark.weight = Integer.parseInt(value);
+                    break;
+                case "broad":
+                    benchmark.broadPercent = Integer.parseInt(value);
+                    break;
+                case "broad-weight":
+                    benchmark.broadWeight = Integer.parseInt(value);
+                    break;
+                case "zipf":
+                    String[] parts = value.split(",");
+                    benchmark.exponents = new double[parts.length];
+                    for (int i = 0; i < parts.length; i++) {
+                        benchmark.exponents[i] = Double.parseDouble(parts[i].trim());
+                    }
+                    break;
+                case "seed":
+                    benchmark.seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        benchmark.run();
+    }
+
+    private void run() {
+        System.out.printf("keys=%d, lookups=%d, capacity=%d, weight=%d, broad=%d%% of weight %d%n",
+                keys, lookups, capacity, weight, broadPercent, broadWeight);
+        System.out.printf("%6s %10s %10s %12s %12s %10s%n",
+                "zipf", "hit %", "best %", "evictions", "too large", "ns/op");
+        for (double exponent : exponents) {
+            measure(exponent);
+        }
+    }
+
+    private void measure(double exponent) {
+        ZipfDistribution popularity = new ZipfDistribution(keys, exponent);
+        SegmentedLruCache<Integer, Integer> cache = new SegmentedLruCache<>(capacity, value -> value);
+        SplittableRandom random = new SplittableRandom(seed);
+        long fitting = capacity / weight; // Keys a fixed cache could hold
+        long popularLookups = 0;
+
+        long start = System.nanoTime();
+        for (long i = 0; i < lookups; i++) {
+            if (random.nextInt(100) < broadPercent) {
+                // A broad search: a key of its own, too heavy to be kept
+                Integer key = -1 - random.nextInt(keys);
+                if (cache.get(key) == null) {
+                    cache.put(key, broadWeight);
+                }
+                continue;
+            }
+            int rank = popularity.sample(random);
+            if (rank < fitting) {
+                popularLookups++;
+            }
+            if (cache.get(rank) == null) {
+                cache.put(rank, weight);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.printf("%6.2f %10.1f %10.1f %12d %12d %10.0f%n", exponent,
+                cache.getHitRate() * 100, popularLookups * 100.0 / lookups,
+                cache.getEvictions(), cache.getRejections(), (double) elapsedNanos / lookups);
+    }
+}
@@ -0,0 +1,339 @@
+package library.simulation;
+
+import library.exceptions.LibraryException;
+import library.exceptions.RequestRejectedException;
+import library.models.Book;
+import library.models.Member;
+import library.services.AdmissionControlledLibrary;
+import library.services.LibrarySystem;
+import library.time.LibraryClock;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Deterministic load generator for the Library Management System
+ * Builds a synthetic library, then drives issue/return/search traffic through
+ * LibrarySystem from several threads, with title popularity following a Zipf
+ * distribution and the library's clock advancing one simulated day every
+ * ops-per-day operations.
+ * Reports throughput, latency percentiles and loan invariant checks.
+ *
+ * The population and each thread's request stream depend only on the seed;
+ * the interleaving between threads does not. Each thread owns a slice of the
+ * members so a member's loans are only touched by one thread.
+ *
+ * With --admission=true every operation goes through AdmissionControlledLibrary
+ * and each thread is one client with its own budget. Requests it refuses
+ * are counted as throttled, apart from the ones that failed for business
+ * reasons (a copy already on loan, no loan to return).
+ *
+ * Usage: LoadSimulator [--books=N] [--copies=N] [--members=N] [--threads=N]
+ *        [--operations=N] [--seed=N] [--zipf=S] [--issue=P] [--return=P]
+ *        [--ops-per-day=N] [--rate=OPS_PER_SECOND] [--admission=true]
+ */
+public class LoadSimulator {
+    private static final Instant SIMULATION_START = Instant.parse("2024-01-01T09:00:00Z");
+    private static final int MAX_REPORTED_VIOLATIONS = 10;
+
+    private final SimulationConfig config;
+    private final SimulatedClock clock;
+    private final ZipfDistribution titlePopularity;
+    private final AtomicLong operationsStarted;
+    private LibrarySystem librarySystem;
+    private AdmissionControlledLibrary admission;
+
+    public LoadSimulator(SimulationConfig config) {
+        this.config = config;
+        this.clock = new SimulatedClock(SIMULATION_START, ZoneOffset.UTC);
+        this.titlePopularity = new ZipfDistribution(config.getTitles(), config.getZipfExponent());
+        this.operationsStarted = new AtomicLong();
+    }
+
+    public static void main(String[] args) throws Exception {
+        SimulationConfig config = SimulationConfig.fromArgs(args);
+        System.out.println("Simulation: " + config);
+        new LoadSimulator(config).run();
+    }
+
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        populate();
+        System.out.printf("Populated %d books and %d members in %.1f ms%n",
+                config.getBooks(), config.getMembers(), (System.nanoTime() - start) / 1e6);
+
+        Worker[] workers = new Worker[config.getThreads()];
+        Thread[] threads = new Thread[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i);
+            threads[i] = new Thread(workers[i], "simulation-" + i);
+        }
+        start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        report(workers, elapsedNanos);
+        checkInvariants(workers);
+    }
+
+    // Population
+    private void populate() {
+        librarySystem = new LibrarySystem(new LibraryClock(clock), false);
+        admission = config.isAdmission() ? new AdmissionControlledLibrary(librarySystem) : null;
+        int copies = config.getCopiesPerTitle();
+        for (int book = 0; book < config.getBooks(); book++) {
+            int title = book / copies;
+            librarySystem.addBook(bookId(book), titleName(title), "Author " + (title % 1000),
+                    String.format("978-%010d", book));
+        }
+        for (int member = 0; member < config.getMembers(); member++) {
+            try {
+                librarySystem.addMember(memberId(member), "Member " + member,
+                        "member" + member + "@library.test", String.format("555-%07d", member));
+            } catch (LibraryException e) {
+                throw new IllegalStateException("Could not create member " + member, e);
+            }
+        }
+    }
+
+    private static String bookId(int book) {
+        return String.format("B%07d", book);
+    }
+
+    private static String memberId(int member) {
+        return String.format("M%07d", member);
+    }
+
+    private static String titleName(int title) {
+        return String.format("Title %07d", title);
+    }
+
+    // Reporting
+    private void report(Worker[] workers, long elapsedNanos) {
+        long completed = 0;
+        System.out.printf("%nCompleted in %.1f ms, %d simulated days%n",
+                elapsedNanos / 1e6, clock.getElapsedDays());
+        System.out.printf("%-8s %10s %10s %10s %10s %10s %10s %10s %10s%n",
+                "Op", "Count", "Failed", "Throttled", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram merged = new LatencyHistogram();
+            long failed = 0;
+            long throttled = 0;
+            for (Worker worker : workers) {
+                merged.merge(worker.latencies[operation.ordinal()]);
+                failed += worker.failed[operation.ordinal()];
+                throttled += worker.throttled[operation.ordinal()];
+            }
+            completed += merged.getTotalCount();
+            System.out.printf("%-8s %10d %10d %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    operation, merged.getTotalCount(), failed, throttled,
+                    merged.percentile(50) / 1e3, merged.percentile(90) / 1e3,
+                    merged.percentile(99) / 1e3, merged.percentile(99.9) / 1e3,
+                    merged.getMaxNanos() / 1e3);
+        }
+        System.out.printf("Throughput: %.0f ops/s%n", completed * 1e9 / elapsedNanos);
+        if (admission != null) {
+            System.out.printf("Admission: %d rate limited, %d overloaded, final limits %d lookup / %d scan%n",
+                    admission.getRateLimitedCount(), admission.getOverloadedCount(),
+                    admission.getLookupConcurrency().getLimit(), admission.getScanConcurrency().getLimit());
+        }
+        System.out.printf("Overdue on %s: %d books%n",
+                librarySystem.getClock().todayDate(), librarySystem.getOverdueBooksCount());
+    }
+
+    private void checkInvariants(Worker[] workers) {
+        List<String> violations = new ArrayList<>();
+        long loansFromBooks = 0;
+        for (Book book : librarySystem.getAllBooks()) {
+            if (book.isAvailable()) {
+                continue;
+            }
+            loansFromBooks++;
+            try {
+                Member member = librarySystem.getMember(book.getIssuedTo());
+                if (!member.hasIssuedBook(book.getBookId())) {
+                    violations.add("Book " + book.getBookId() + " issued to " + member.getMemberId()
+                            + " but missing from the member's loans");
+                }
+            } catch (LibraryException e) {
+                violations.add("Book " + book.getBookId() + " issued to unknown member " + book.getIssuedTo());
+            }
+        }
+
+        long loansFromMembers = 0;
+        for (Member member : librarySystem.getAllMembers()) {
+            loansFromMembers += member.getIssuedBooksCount();
+            if (member.getIssuedBooksCount() > librarySystem.getMaxBooksAllowed(member)) {
+                violations.add("Member " + member.getMemberId() + " holds " + member.getIssuedBooksCount() + " books");
+            }
+            for (String bookId : member.getIssuedBooks()) {
+                try {
+                    Book book = librarySystem.getBook(bookId);
+                    if (book.isAvailable() || !member.getMemberId().equals(book.getIssuedTo())) {
+                        violations.add("Member " + member.getMemberId() + " lists " + bookId
+                                + " which is not issued to them");
+                    }
+                } catch (LibraryException e) {
+                    violations.add("Member " + member.getMemberId() + " lists unknown book " + bookId);
+                }
+            }
+        }
+
+        long issued = 0;
+        long returned = 0;
+        for (Worker worker : workers) {
+            issued += worker.succeeded[Operation.ISSUE.ordinal()];
+            returned += worker.succeeded[Operation.RETURN.ordinal()];
+        }
+        if (loansFromBooks != loansFromMembers) {
+            violations.add("Books show " + loansFromBooks + " loans but members show " + loansFromMembers);
+        }
+        if (loansFromBooks != issued - returned) {
+            violations.add("Expected " + (issued - returned) + " open loans but found " + loansFromBooks);
+        }
+        if (librarySystem.getIssuedBooksCount() != loansFromBooks) {
+            violations.add("Issued books count " + librarySystem.getIssuedBooksCount()
+                    + " does not match " + loansFromBooks + " loans");
+        }
+
+        System.out.printf("%nInvariants: %d open loans, %s%n", loansFromBooks,
+                violations.isEmpty() ? "all checks passed" : violations.size() + " violation(s)");
+        for (int i = 0; i < violations.size() && i < MAX_REPORTED_VIOLATIONS; i++) {
+            System.out.println("  " + violations.get(i));
+        }
+    }
+
+    private enum Operation { ISSUE, RETURN, SEARCH }
+
+    private enum Outcome { SUCCEEDED, FAILED, THROTTLED }
+
+    /**
+     * Drives one thread's share of the operations against its slice of members
+     */
+    private class Worker implements Runnable {
+        private final int index;
+        private final String clientId;
+        private final SplittableRandom random;
+        private final LatencyHistogram[] latencies;
+        private final long[] succeeded;
+        private final long[] failed;
+        private final long[] throttled;
+
+        private Worker(int index) {
+            this.index = index;
+            this.clientId = "simulation-" + index;
+            this.random = new SplittableRandom(config.getSeed() * 31 + index);
+            this.latencies = new LatencyHistogram[Operation.values().length];
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = new LatencyHistogram();
+            }
+            this.succeeded = new long[latencies.length];
+            this.failed = new long[latencies.length];
+            this.throttled = new long[latencies.length];
+        }
+
+        @Override
+        public void run() {
+            int threads = config.getThreads();
+            long operations = config.getOperations() / threads
+                    + (index < config.getOperations() % threads ? 1 : 0);
+            long intervalNanos = config.getRatePerSecond() > 0 ? threads * 1_000_000_000L / config.getRatePerSecond() : 0;
+            long start = System.nanoTime();
+
+            for (long i = 0; i < operations; i++) {
+                long intendedStart = System.nanoTime();
+                if (intervalNanos > 0) {
+                    // Open loop: latency is measured from the scheduled start so queueing shows up
+                    intendedStart = start + i * intervalNanos;
+                    long wait = intendedStart - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                if (operationsStarted.incrementAndGet() % config.getOperationsPerDay() == 0) {
+                    clock.advanceDays(1);
+                }
+
+                Operation operation = nextOperation();
+                Outcome outcome = execute(operation);
+                latencies[operation.ordinal()].record(System.nanoTime() - intendedStart);
+                if (outcome == Outcome.SUCCEEDED) {
+                    succeeded[operation.ordinal()]++;
+                } else if (outcome == Outcome.FAILED) {
+                    failed[operation.ordinal()]++;
+                } else {
+                    throttled[operation.ordinal()]++;
+                }
+            }
+        }
+
+        private Operation nextOperation() {
+            int roll = random.nextInt(100);
+            if (roll < config.getIssuePercent()) {
+                return Operation.ISSUE;
+            }
+            if (roll < config.getIssuePercent() + config.getReturnPercent()) {
+                return Operation.RETURN;
+            }
+            return Operation.SEARCH;
+        }
+
+        private Outcome execute(Operation operation) {
+            try {
+                switch (operation) {
+                    case ISSUE:
+                        int title = titlePopularity.sample(random);
+                        int copy = random.nextInt(config.getCopiesPerTitle());
+                        String bookId = bookId(title * config.getCopiesPerTitle() + copy);
+                        if (admission != null) {
+                            admission.issueBook(clientId, bookId, ownMemberId());
+                        } else {
+                            librarySystem.issueBook(bookId, ownMemberId());
+                        }
+                        return Outcome.SUCCEEDED;
+                    case RETURN:
+                        String memberId = ownMemberId();
+                        Member member = admission != null
+                                ? admission.getMember(clientId, memberId) : librarySystem.getMember(memberId);
+                        List<String> loans = member.getIssuedBooks();
+                        if (loans.isEmpty()) {
+                            return Outcome.FAILED;
+                        }
+                        String loan = loans.get(random.nextInt(loans.size()));
+                        if (admission != null) {
+                            admission.returnBook(clientId, loan, memberId);
+                        } else {
+                            librarySystem.returnBook(loan, memberId);
+                        }
+                        return Outcome.SUCCEEDED;
+                    default:
+                        String query = titleName(titlePopularity.sample(random));
+                        List<Book> found = admission != null
+                                ? admission.searchBooks(clientId, query) : librarySystem.searchBooks(query);
+                        return found.isEmpty() ? Outcome.FAILED : Outcome.SUCCEEDED;
+                }
+            } catch (RequestRejectedException e) {
+                return Outcome.THROTTLED;
+            } catch (LibraryException e) {
+                return Outcome.FAILED;
+            }
+        }
+
+        // Members are split between threads by index modulo the thread count
+        private String ownMemberId() {
+            int threads = config.getThreads();
+            int owned = config.getMembers() / threads + (index < config.getMembers() % threads ? 1 : 0);
+            return memberId(random.nextInt(owned) * threads + index);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package library.simulation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock that only moves when the simulation advances it by whole days
+ */
+public class SimulatedClock extends Clock {
+    private final Instant start;
+    private final ZoneId zone;
+    private final AtomicLong elapsedDays;
+
+    public SimulatedClock(Instant start, ZoneId zone) {
+        this(start, zone, new AtomicLong());
+    }
+
+    private SimulatedClock(Instant start, ZoneId zone, AtomicLong elapsedDays) {
+        this.start = start;
+        this.zone = zone;
+        this.elapsedDays = elapsedDays;
+    }
+
+    public long advanceDays(long days) {
+        return elapsedDays.addAndGet(days);
+    }
+
+    public long getElapsedDays() {
+        return elapsedDays.get();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    // Clocks created here share the same elapsed days
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new SimulatedClock(start, zone, elapsedDays);
+    }
+
+    @Override
+    public Instant instant() {
+        return start.plus(Duration.ofDays(elapsedDays.get()));
+    }
+}
@@ -0,0 +1,158 @@
+package library.simulation;
+
+/**
+ * Settings for a load simulation run, parsed from --name=value arguments
+ */
+public class SimulationConfig {
+    private int books = 100_000;
+    private int copiesPerTitle = 2;
+    private int members = 10_000;
+    private int threads = 4;
+    private long operations = 1_000_000;
+    private long seed = 42;
+    private double zipfExponent = 1.0;
+    private int issuePercent = 45;
+    private int returnPercent = 40;
+    private long operationsPerDay = 10_000;
+    private long ratePerSecond = 0;
+    private boolean admission = false;
+
+    public static SimulationConfig fromArgs(String[] args) {
+        SimulationConfig config = new SimulationConfig();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "books":
+                    config.books = Integer.parseInt(value);
+                    break;
+                case "copies":
+                    config.copiesPerTitle = Integer.parseInt(value);
+                    break;
+                case "members":
+                    config.members = Integer.parseInt(value);
+                    break;
+                case "threads":
+                    config.threads = Integer.parseInt(value);
+                    break;
+                case "operations":
+                    config.operations = Long.parseLong(value);
+                    break;
+                case "seed":
+                    config.seed = Long.parseLong(value);
+                    break;
+                case "zipf":
+                    config.zipfExponent = Double.parseDouble(value);
+                    break;
+                case "issue":
+                    config.issuePercent = Integer.parseInt(value);
+                    break;
+                case "return":
+                    config.returnPercent = Integer.parseInt(value);
+                    break;
+                case "ops-per-day":
+                    config.operationsPerDay = Long.parseLong(value);
+                    break;
+                case "rate":
+                    config.ratePerSecond = Long.parseLong(value);
+                    break;
+                case "admission":
+                    config.admission = Boolean.parseBoolean(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        config.validate();
+        return config;
+    }
+
+    private void validate() {
+        if (books <= 0 || members <= 0 || threads <= 0 || copiesPerTitle <= 0 || operationsPerDay <= 0) {
+            throw new IllegalArgumentException("books, copies, members, threads and ops-per-day must be positive");
+        }
+        if (books % copiesPerTitle != 0) {
+            throw new IllegalArgumentException("books must be a multiple of copies");
+        }
+        if (members < threads) {
+            throw new IllegalArgumentException("Need at least one member per thread");
+        }
+        if (issuePercent < 0 || returnPercent < 0 || issuePercent + returnPercent > 100) {
+            throw new IllegalArgumentException("issue + return percentages must be between 0 and 100");
+        }
+    }
+
+    // Getters
+    public int getBooks() {
+        return books;
+    }
+
+    public int getCopiesPerTitle() {
+        return copiesPerTitle;
+    }
+
+    public int getTitles() {
+        return books / copiesPerTitle;
+    }
+
+    public int getMembers() {
+        return members;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    public int getIssuePercent() {
+        return issuePercent;
+    }
+
+    public int getReturnPercent() {
+        return returnPercent;
+    }
+
+    // Whatever is left of the mix after issues and returns
+    public int getSearchPercent() {
+        return 100 - issuePercent - returnPercent;
+    }
+
+    public long getOperationsPerDay() {
+        return operationsPerDay;
+    }
+
+    // Zero means closed loop: each thread starts its next operation as soon as the last one ends
+    public long getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    // Send every operation through AdmissionControlledLibrary, each thread acting as one client
+    public boolean isAdmission() {
+        return admission;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("books=%d (copies=%d), members=%d, threads=%d, operations=%d, seed=%d, zipf=%.2f, "
+                        + "mix=%d/%d/%d issue/return/search, ops-per-day=%d, %s%s",
+                books, copiesPerTitle, members, threads, operations, seed, zipfExponent,
+                issuePercent, returnPercent, getSearchPercent(), operationsPerDay,
+                ratePerSecond > 0 ? "open loop at " + ratePerSecond + " ops/s" : "closed loop",
+                admission ? ", admission control" : "");
+    }
+}
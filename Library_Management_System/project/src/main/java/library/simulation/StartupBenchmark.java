@@ -0,0 +1,249 @@
+package library.simulation;
+
+import library.io.LibrarySnapshot;
+import library.io.SnapshotWriter;
+import library.models.Book;
+import library.models.Member;
+import library.services.LibrarySystem;
+import library.time.LibraryClock;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures time-to-first-request of a restarted process
+ * Each run launches a fresh JVM that loads a snapshot and answers one id
+ * lookup; the time from launch to that answer includes JVM startup, class
+ * loading and the snapshot load. Runs are made with the eager load (all
+ * indexes built before serving) and the fast start (indexes built in the
+ * background after the records are loaded), and optionally with an AppCDS
+ * archive. The snapshot is generated on first use and then reused.
+ *
+ * The fast start only moves the index build off the critical path: every
+ * record is still decoded before the first request is answered, so the time
+ * to first request keeps growing with the snapshot size.
+ *
+ * Class data sharing: with JDK 13 or later, --cds-archive=FILE first runs a
+ * fast-start child with -XX:ArchiveClassesAtExit=FILE, which writes the
+ * classes it loaded to the archive, then repeats the measurements with
+ * -XX:SharedArchiveFile=FILE. CDS only archives classes loaded from jars, so
+ * package the compiled classes first:
+ *   jar cf library.jar -C CLASSES .
+ *   java -cp library.jar library.simulation.StartupBenchmark --cds-archive=library.jsa
+ * The same archive works for the application:
+ *   java -XX:SharedArchiveFile=library.jsa -cp library.jar library.LibraryManagementApp
+ *        --batch script --snapshot data.snap --fast-start
+ * The archive is only valid for the JDK and jar that created it, so
+ * regenerate it after every build.
+ *
+ * Usage: StartupBenchmark [--records=N] [--snapshot=FILE] [--runs=N]
+ *        [--cds-archive=FILE] [--jvm-opt=OPTION]...
+ * e.g.   StartupBenchmark --records=1000000 --jvm-opt=-Xmx2g
+ * Ten million records need a heap of about 8 GB in both the benchmark and
+ * its children (--jvm-opt=-Xmx8g).
+ */
+public class StartupBenchmark {
+    private static final String FIRST_REQUEST = "FIRST_REQUEST";
+    private static final String INDEXES_READY = "INDEXES_READY";
+    private static final int LOANS_PER_MEMBER = 2;
+    private static final int DUE_DAY_SPREAD = 28;
+
+    private long records = 1_000_000;
+    private Path snapshot;
+    private int runs = 3;
+    private Path cdsArchive;
+    private final List<String> jvmOptions = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].startsWith("--child=")) {
+            runChild(args);
+            return;
+        }
+        StartupBenchmark benchmark = new StartupBenchmark();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(2, separator)) {
+                case "records":
+                    benchmark.records = Long.parseLong(value);
+                    break;
+                case "snapshot":
+                    benchmark.snapshot = Paths.get(value);
+                    break;
+                case "runs":
+                    benchmark.runs = Integer.parseInt(value);
+                    break;
+                case "cds-archive":
+                    benchmark.cdsArchive = Paths.get(value);
+                    break;
+                case "jvm-opt":
+                    benchmark.jvmOptions.add(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (benchmark.snapshot == null) {
+            benchmark.snapshot = Paths.get("startup-" + benchmark.records + ".snap");
+        }
+        benchmark.run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        if (cdsArchive != null) {
+            for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+                if (new File(entry).isDirectory()) {
+                    throw new IllegalArgumentException("Class data sharing needs the classes in a jar, not " + entry);
+                }
+            }
+        }
+        if (!Files.exists(snapshot)) {
+            long start = System.nanoTime();
+            generateSnapshot();
+            System.out.printf("Generated %s (%d records, %.1f MB) in %.1f s%n", snapshot, records,
+                    Files.size(snapshot) / 1e6, (System.nanoTime() - start) / 1e9);
+        }
+
+        System.out.printf("%-12s %-4s %12s %12s %12s%n", "Mode", "CDS", "first ms", "indexes ms", "in-JVM ms");
+        measure("eager", Collections.emptyList(), "no");
+        measure("fast", Collections.emptyList(), "no");
+        if (cdsArchive != null) {
+            if (!Files.exists(cdsArchive)) {
+                launch("fast", Collections.singletonList("-XX:ArchiveClassesAtExit=" + cdsArchive));
+            }
+            List<String> sharing = Collections.singletonList("-XX:SharedArchiveFile=" + cdsArchive);
+            measure("eager", sharing, "yes");
+            measure("fast", sharing, "yes");
+        }
+    }
+
+    // Prints the median of several launches
+    private void measure(String mode, List<String> extraOptions, String cds) throws IOException, InterruptedException {
+        double[][] samples = new double[3][runs];
+        for (int run = 0; run < runs; run++) {
+            double[] result = launch(mode, extraOptions);
+            for (int i = 0; i < result.length; i++) {
+                samples[i][run] = result[i];
+            }
+        }
+        for (double[] sample : samples) {
+            Arrays.sort(sample);
+        }
+        System.out.printf("%-12s %-4s %12.1f %12.1f %12.1f%n", mode, cds,
+                samples[0][runs / 2], samples[1][runs / 2], samples[2][runs / 2]);
+    }
+
+    // Returns {ms to first answer, ms to indexes ready, ms to first answer measured inside the child}
+    private double[] launch(String mode, List<String> extraOptions) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(extraOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(StartupBenchmark.class.getName());
+        command.add("--child=" + mode);
+        command.add(snapshot.toString());
+        command.add(bookId(0));
+
+        double[] result = new double[3];
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try (BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.startsWith(FIRST_REQUEST)) {
+                    result[0] = (System.nanoTime() - start) / 1e6;
+                    result[2] = Long.parseLong(line.substring(FIRST_REQUEST.length() + 1)) / 1e6;
+                } else if (line.startsWith(INDEXES_READY)) {
+                    result[1] = (System.nanoTime() - start) / 1e6;
+                }
+            }
+        }
+        if (process.waitFor() != 0 || result[0] == 0) {
+            throw new IOException("Benchmark child failed: " + String.join(" ", command));
+        }
+        return result;
+    }
+
+    // Child process: load, answer one lookup, then wait for the indexes
+    private static void runChild(String[] args) throws Exception {
+        long start = System.nanoTime();
+        boolean fast = args[0].equals("--child=fast");
+        Path file = Paths.get(args[1]);
+
+        LibrarySystem librarySystem = new LibrarySystem(LibraryClock.system(), false);
+        if (fast) {
+            LibrarySnapshot.importForFastStart(file, librarySystem);
+        } else {
+            LibrarySnapshot.importFrom(file, librarySystem);
+        }
+        librarySystem.getBook(args[2]);
+        System.out.println(FIRST_REQUEST + " " + (System.nanoTime() - start));
+        System.out.flush();
+
+        librarySystem.getBookIdsDueBetween(LocalDate.now(), LocalDate.now());
+        System.out.println(INDEXES_READY + " " + (System.nanoTime() - start));
+    }
+
+    // Streams a synthetic library straight to the snapshot without building it in memory
+    private void generateSnapshot() throws IOException {
+        long members = Math.max(1, records / 10);
+        long books = records - members;
+        LocalDate today = LocalDate.now();
+        File parent = snapshot.toAbsolutePath().getParent().toFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SnapshotWriter writer = new SnapshotWriter(channel);
+            for (long book = 0; book < books; book++) {
+                long title = book / 2;
+                String id = bookId(book);
+                if (book < members * LOANS_PER_MEMBER) {
+                    LocalDate due = today.plusDays(book % DUE_DAY_SPREAD);
+                    writer.writeBook(new Book(id, "Title " + title, "Author " + (title % 5000),
+                            String.format("978-%010d", book), memberId(book % members), due.minusDays(14), due));
+                } else {
+                    writer.writeBook(new Book(id, "Title " + title, "Author " + (title % 5000),
+                            String.format("978-%010d", book)));
+                }
+            }
+            for (long member = 0; member < members; member++) {
+                List<String> loans = new ArrayList<>();
+                for (long book = member; book < Math.min(books, members * LOANS_PER_MEMBER); book += members) {
+                    loans.add(bookId(book));
+                }
+                writer.writeMember(new Member(memberId(member), "Member " + member, "member" + member + "@library.test",
+                        String.format("555-%07d", member), today.minusDays(member % 3650), loans));
+            }
+            writer.finish();
+        }
+    }
+
+    private static String bookId(long book) {
+        return String.format("B%08d", book);
+    }
+
+    private static String memberId(long member) {
+        return String.format("M%08d", member);
+    }
+}
@@ -0,0 +1,54 @@
+package library.time;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Day provider for loan and overdue calculations
+ * Caches the current epoch day and only recomputes it (with the time-zone
+ * lookup that involves) when the underlying clock crosses into another day,
+ * so bulk overdue scans read a single long instead of building dates.
+ * Wrap a fixed or simulated java.time.Clock to evaluate a different day.
+ */
+public class LibraryClock {
+    private static final LibraryClock SYSTEM = new LibraryClock(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile long today;
+    private volatile long dayStartMillis;
+    private volatile long nextDayStartMillis;
+
+    public LibraryClock(Clock clock) {
+        this.clock = clock;
+        refresh();
+    }
+
+    public static LibraryClock system() {
+        return SYSTEM;
+    }
+
+    // Current epoch day
+    public long today() {
+        long now = clock.millis();
+        if (now >= nextDayStartMillis || now < dayStartMillis) {
+            refresh();
+        }
+        return today;
+    }
+
+    public LocalDate todayDate() {
+        return LocalDate.ofEpochDay(today());
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    private synchronized void refresh() {
+        LocalDate date = LocalDate.now(clock);
+        // Publish the day before the bounds so readers that see new bounds see the new day
+        today = date.toEpochDay();
+        dayStartMillis = date.atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        nextDayStartMillis = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+    }
+}